@@ -18,22 +18,48 @@
 plugins {
     `java-library`
     id("com.vanniktech.maven.publish") version "0.34.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "io.github.canary-prism"
 description = "Minesweeper backend thing for Java"
-version = "5.3.0"
+version = "6.0.0"
 
 repositories {
     mavenCentral()
 }
 
+// javac warns about every compile that uses the incubating Vector API and no flag turns that off,
+// so VectorCounter is compiled on its own here and BitBoard only loads it by reflection.
+// the main compile stays warning free, this is the one compile that still says it's using an incubating module
+val vector by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+tasks.jar {
+    from(vector.output)
+}
+
+tasks.withType<Jar>().matching { it.name == "sourcesJar" }.configureEach {
+    from(vector.allJava)
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
 
     // https://mvnrepository.com/artifact/org.jetbrains/annotations
     compileOnly("org.jetbrains:annotations:26.0.2-1")
+
+    // https://mvnrepository.com/artifact/org.openjdk.jol/jol-core
+    jmh("org.openjdk.jol:jol-core:0.17")
+
+    testRuntimeOnly(files(vector.output))
+    "jmhRuntimeOnly"(files(vector.output))
 }
 
 tasks.test {
@@ -46,6 +72,24 @@ java {
     }
 }
 
+jmh {
+    jmhVersion = "1.37"
+    // allocation rate and gc time next to every result
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    jvmArgsAppend = listOf("--add-modules=jdk.incubator.vector")
+    // ./gradlew jmh -Pbenchmarks=SolverBenchmark to only run some of them
+    providers.gradleProperty("benchmarks").orNull?.let { includes = listOf(it) }
+}
+
+tasks.register<JavaExec>("jol") {
+    group = "jmh"
+    description = "Prints how much memory boards take up"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "canaryprism.minsweeper.Footprint"
+    jvmArgs("--add-modules=jdk.incubator.vector", "-Djdk.attach.allowAttachSelf=true")
+}
+
 mavenPublishing {
     publishToMavenCentral(true)
 
@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks for the basic operations on a [Board]
+///
+/// The board is a seeded random board with the first move already made,
+/// so there's a mix of revealed and unknown cells like partway through a game
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    
+    @Param({ "BEGINNER", "INTERMEDIATE", "EXPERT" })
+    public ConventionalSize size;
+    
+    private Board board;
+    private Board won;
+    private int x, y;
+    
+    @Setup
+    public void setup() {
+        var sizes = size.size;
+        var game = new Engine(new GameState(GameStatus.PLAYING,
+                Board.random(sizes, 1, sizes.width() / 2, sizes.height() / 2, 1), sizes.mines()));
+        game.reveal(sizes.width() / 2, sizes.height() / 2);
+        this.board = game.getGameState().board();
+        
+        // every safe cell revealed, so hasWon has to look at the whole board
+        this.won = board.clone();
+        for (int y = 0; y < sizes.height(); y++)
+            for (int x = 0; x < sizes.width(); x++)
+                if (!won.isMine(x, y))
+                    won.setState(x, y, CellState.REVEALED);
+    }
+    
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        var sizes = size.size;
+        for (int y = 0; y < sizes.height(); y++)
+            for (int x = 0; x < sizes.width(); x++)
+                blackhole.consume(board.get(x, y));
+    }
+    
+    @Benchmark
+    public Board set() {
+        var sizes = size.size;
+        // flags and unflags cells one after another so the board doesn't end up all flagged
+        var cell = board.get(x, y);
+        board.setState(x, y, switch (cell.state()) {
+            case UNKNOWN -> CellState.FLAGGED;
+            case FLAGGED -> CellState.UNKNOWN;
+            case REVEALED -> CellState.REVEALED;
+        });
+        if (++x == sizes.width()) {
+            x = 0;
+            if (++y == sizes.height())
+                y = 0;
+        }
+        return board;
+    }
+    
+    @Benchmark
+    public Board cloneBoard() {
+        return board.clone();
+    }
+    
+    @Benchmark
+    public Board hideMines() {
+        return board.hideMines();
+    }
+    
+    @Benchmark
+    public boolean hasWon() {
+        return won.hasWon();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark for a reveal that floods out over a big empty region
+///
+/// The board has one mine for every `density` cells and the corner is always clear,
+/// so revealing it floods most of the board
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloodBenchmark {
+    
+    /// width`x`height
+    @Param({ "30x16", "256x256", "1024x1024" })
+    public String dimensions;
+    
+    @Param({ "64" })
+    public int density;
+    
+    private GameState state;
+    
+    @Setup
+    public void setup() {
+        var split = dimensions.indexOf('x');
+        var width = Integer.parseInt(dimensions.substring(0, split));
+        var height = Integer.parseInt(dimensions.substring(split + 1));
+        var sizes = new BoardSize(width, height, Math.max(1, width * height / density));
+        this.state = new GameState(GameStatus.PLAYING, Board.random(sizes, 1, 0, 0, 1), sizes.mines());
+    }
+    
+    @Benchmark
+    public GameState reveal() {
+        return new Engine(state).reveal(0, 0);
+    }
+}
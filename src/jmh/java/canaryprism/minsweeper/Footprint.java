@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+/// Prints how much memory boards take up, using JOL
+///
+/// Run with `./gradlew jol`
+public class Footprint {
+    
+    public static void main(String[] args) {
+        System.out.println(VM.current().details());
+        System.out.println(ClassLayout.parseClass(Board.class).toPrintable());
+        
+        for (var size : ConventionalSize.values())
+            report(size.name(), size.size);
+        report("1024x1024", new BoardSize(1024, 1024, 1024 * 1024 / 5));
+    }
+    
+    private static void report(String name, BoardSize size) {
+        var board = Board.random(size, 1, size.width() / 2, size.height() / 2, 1);
+        var game = new Engine(new GameState(GameStatus.PLAYING, board, size.mines()));
+        game.reveal(size.width() / 2, size.height() / 2);
+        var played = game.getGameState().board();
+        
+        System.out.println("=== " + name + " ===");
+        print("board", board);
+        print("board after the first reveal", played);
+        print("board after the first reveal, hidden", played.hideMines());
+        // a clone shares what it can with the board it's cloned from, so only what it adds is counted
+        var clone = played.clone();
+        System.out.printf("%-40s %,12d bytes%n", "clone of a board",
+                GraphLayout.parseInstance(played, clone).totalSize() - GraphLayout.parseInstance(played).totalSize());
+        print("bitboard", BitBoard.of(played));
+        print("generated board", Board.generated(size, 1));
+        System.out.println();
+    }
+    
+    private static void print(String what, Object object) {
+        System.out.printf("%-40s %,12d bytes%n", what, GraphLayout.parseInstance(object).totalSize());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark for making a completely random board, like [MinsweeperGame#start()] does
+///
+/// Each invocation uses the next seed so no two boards are the same,
+/// but a run always goes through the same boards
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+    
+    @Param({ "BEGINNER", "INTERMEDIATE", "EXPERT" })
+    public ConventionalSize size;
+    
+    private long seed;
+    
+    @Setup
+    public void setup() {
+        this.seed = 0;
+    }
+    
+    @Benchmark
+    public GameState generateGame() {
+        return AbstractRandomMinsweeper.generateGame(size.size, seed++);
+    }
+}
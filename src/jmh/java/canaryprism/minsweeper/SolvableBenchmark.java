@@ -0,0 +1,58 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Solver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark for finding a board the default [Solver] can win, from starting a game to its first reveal being made
+///
+/// Each invocation uses the next seed so no two boards are the same,
+/// but a run always goes through the same boards.
+/// How long one takes varies a lot from board to board, so this runs for longer than the others
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SolvableBenchmark {
+    
+    @Param({ "BEGINNER", "INTERMEDIATE", "EXPERT" })
+    public ConventionalSize size;
+    
+    @Param({ "RETRY", "REPAIR", "CONSTRUCT" })
+    public MinsweeperGame.Generation generation;
+    
+    private long seed;
+    
+    @Setup
+    public void setup() {
+        this.seed = 0;
+    }
+    
+    @Benchmark
+    public GameState solvable() {
+        var game = new MinsweeperGame(size);
+        game.setGeneration(generation);
+        game.start(Solver.getDefault(), seed++);
+        return game.reveal(size.size.width() / 2, size.size.height() / 2);
+    }
+}
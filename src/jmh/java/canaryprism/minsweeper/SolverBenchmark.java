@@ -0,0 +1,162 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Move;
+import canaryprism.minsweeper.solver.Solver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/// Benchmarks for every registered [Solver]
+///
+/// The games are seeded boards with a clear first reveal in the middle.
+/// [#game(Games)] has the solver play a whole game from the first reveal,
+/// [#step(Positions)] asks it for one move on positions made by playing `depth` moves of the default Solver
+/// after the first reveal. Both go through the same games one after another
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    
+    /// how many different games to go through
+    private static final int GAMES = 64;
+    
+    /// the simple name of the [Solver]'s class
+    ///
+    /// this has to list exactly the registered solvers, [#setup()] fails if a solver is registered or renamed without it
+    @Param({
+            "SafeStart",
+            "ZeroStart",
+            "MiaSolver",
+            "BeginnerSolver",
+            "IntermediateSolver",
+            "ExpertSolver",
+            "IntermediateOnlySolver",
+            "ExpertOnlySolver",
+            "MineSweeperSolver",
+    })
+    public String solver;
+    
+    private Solver instance;
+    
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        var registered = ServiceLoader.load(Solver.class).stream()
+                .map((provider) -> provider.type().getSimpleName())
+                .collect(Collectors.toSet());
+        var benchmarked = Set.of(SolverBenchmark.class.getField("solver").getAnnotation(Param.class).value());
+        if (!benchmarked.equals(registered))
+            throw new IllegalStateException("the solver params " + new TreeSet<>(benchmarked)
+                    + " aren't the registered solvers " + new TreeSet<>(registered));
+        
+        this.instance = ServiceLoader.load(Solver.class).stream()
+                .filter((provider) -> provider.type().getSimpleName().equals(solver))
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException("no solver called " + solver))
+                .get();
+    }
+    
+    /// The games before their first reveal, with nothing hidden
+    @State(Scope.Thread)
+    public static class Games {
+        
+        @Param({ "BEGINNER", "INTERMEDIATE", "EXPERT" })
+        public ConventionalSize size;
+        
+        final ArrayList<GameState> games = new ArrayList<>();
+        int x, y;
+        private int next;
+        
+        @Setup
+        public void setup() {
+            var sizes = size.size;
+            this.x = sizes.width() / 2;
+            this.y = sizes.height() / 2;
+            for (long seed = 0; games.size() < GAMES; seed++) {
+                var game = new GameState(GameStatus.PLAYING, Board.random(sizes, seed, x, y, 1), sizes.mines());
+                // games the first reveal already wins don't have anything to solve
+                if (new Engine(game).reveal(x, y).status() == GameStatus.PLAYING)
+                    games.add(game);
+            }
+        }
+        
+        GameState next() {
+            var game = games.get(next);
+            next = (next + 1) % GAMES;
+            return game;
+        }
+    }
+    
+    /// What the player sees `depth` moves into each game
+    @State(Scope.Thread)
+    public static class Positions {
+        
+        /// how many moves into the game the positions are
+        @Param({ "0", "16" })
+        public int depth;
+        
+        private final ArrayList<GameState> positions = new ArrayList<>();
+        private int next;
+        
+        @Setup
+        public void setup(Games games) {
+            for (var game : games.games) {
+                var engine = new Engine(game);
+                engine.reveal(games.x, games.y);
+                for (int i = 0; i < depth && engine.getGameState().status() == GameStatus.PLAYING; i++) {
+                    if (!(Solver.getDefault().solve(engine.getGameState().hideMines()) instanceof Move(var clicks, var ignored)))
+                        break;
+                    for (var click : clicks)
+                        switch (click.action()) {
+                            case LEFT -> engine.leftClick(click.point().x(), click.point().y());
+                            case RIGHT -> engine.rightClick(click.point().x(), click.point().y());
+                        }
+                }
+                if (engine.getGameState().status() == GameStatus.PLAYING)
+                    positions.add(engine.getGameState().hideMines());
+            }
+        }
+        
+        GameState next() {
+            var position = positions.get(next);
+            next = (next + 1) % positions.size();
+            return position;
+        }
+    }
+    
+    @Benchmark
+    public Move step(Positions positions) {
+        return instance.solve(positions.next());
+    }
+    
+    @Benchmark
+    public Solver.Result game(Games games) {
+        var game = new SetMinsweeperGame(games.next());
+        game.reveal(games.x, games.y);
+        return instance.solve(game);
+    }
+}
@@ -35,17 +35,38 @@ public abstract class AbstractHidingMinsweeper extends AbstractMinsweeper {
         super(sizes, on_win, on_lose);
     }
     
+    /// the last hidden state made and the true state it was made from
+    ///
+    /// only copies of the hidden state are handed out, so nothing outside can change what the next one is made from
+    private record Hidden(GameState source, GameState hidden) {}
+    
+    private Hidden hidden;
+    
     /// {@inheritDoc}
     ///
     /// If [#gamestate]'s [status][GameState#status] is [GameStatus#PLAYING],
     /// the returned state hides [CellType] information for [UNKNOWN][CellState#UNKNOWN] [Cell]s
     /// by replacing the [CellType] with [CellType.Unknown]
     ///
+    /// The hidden state is only made again once [#gamestate] changes,
+    /// calling this repeatedly between moves just returns new copies of it, which is cheap since boards are copy on write.
+    /// If it changed by a single move, only the cells that move changed are hidden again
+    ///
     /// @return the state of the game
     @Override
     public final GameState getGameState() {
-        if (super.getGameState().status() == GameStatus.PLAYING)
-            return super.getGameState().hideMines();
-        return super.getGameState();
+        var state = super.getGameState();
+        if (state.status() != GameStatus.PLAYING)
+            return state;
+        
+        var hidden = this.hidden;
+        if (hidden == null || hidden.source != state) {
+            var edits = (hidden != null) ? editsSince(hidden.source.board()) : null;
+            var hidden_state = (edits != null) ?
+                    new GameState(state.status(), state.board().hideMines(hidden.hidden.board(), edits), state.remainingMines())
+                    : state.hideMines();
+            this.hidden = hidden = new Hidden(state, hidden_state);
+        }
+        return hidden.hidden.clone();
     }
 }
@@ -16,7 +16,11 @@
 
 package canaryprism.minsweeper;
 
-import java.util.HashSet;
+import canaryprism.minsweeper.event.MoveEvent;
+
+import java.util.Arrays;
+
+import static canaryprism.minsweeper.CellCodes.*;
 
 /// Abstract partial implementation of [Minsweeper]
 ///
@@ -59,57 +63,173 @@ public abstract class AbstractMinsweeper implements Minsweeper {
     }
     
     
+    /// the board the last move started from and the board it made
+    private Board edited_from, edited;
+    /// every index the last move wrote to
+    private final IndexList edits = new IndexList();
+    
+    /// Makes a copy of the current board to make a move on, recording what the move changes
+    ///
+    /// the board keeps recording after the move so anything that writes to it directly is still counted
+    private Board edit() {
+        if (edited != null)
+            edited.record(null);
+        var board = gamestate.board().clone();
+        this.edited_from = gamestate.board();
+        this.edited = board;
+        edits.clear();
+        board.record(edits);
+        return board;
+    }
+    
+    /// Gets every index that changed going from `from` to the current board
+    ///
+    /// @param from a board [#gamestate] had before
+    /// @return the changed indices, or `null` if the current board wasn't made by a single move on `from`
+    IndexList editsSince(Board from) {
+        return (edited_from == from && edited == gamestate.board()) ? edits : null;
+    }
+    
+    @Override
+    public GameDelta leftClickDelta(int x, int y) {
+        var before = getGameState();
+        var from = gamestate.board();
+        return delta(before, from, leftClick(x, y));
+    }
+    
+    @Override
+    public GameDelta rightClickDelta(int x, int y) {
+        var before = getGameState();
+        var from = gamestate.board();
+        return delta(before, from, rightClick(x, y));
+    }
+    
+    private GameDelta delta(GameState before, Board from, GameState after) {
+        // a status change might mean going from the hidden board to the true one,
+        // which changes way more than the move did, but it only happens about once a game
+        if (before.status() == after.status()) {
+            if (gamestate.board() == from)
+                return GameDelta.of(before, after, new IndexList());
+            var edits = editsSince(from);
+            if (edits != null)
+                return GameDelta.of(before, after, edits);
+        }
+        return GameDelta.between(before, after);
+    }
+    
+    
+    /// where moves are recorded, if anywhere
+    private MoveJournal journal;
+    /// the board the last recorded move was made on
+    private Board journaled;
+    
+    /// Records every move into a [MoveJournal] from now on
+    ///
+    /// Before the first move on a board that didn't come from the last recorded move,
+    /// like the first move of the game or after a new game is started, the whole [GameState] is written to the journal
+    ///
+    /// @param journal the journal to record into, or `null` to stop recording
+    /// @throws IllegalArgumentException if the journal is for a different size of board
+    public void setJournal(MoveJournal journal) {
+        if (journal != null && !journal.getSize().equals(sizes))
+            throw new IllegalArgumentException("Journal is for a different board size");
+        this.journal = journal;
+        this.journaled = null;
+    }
+    
+    private void journal(int action, int x, int y) {
+        if (journal == null)
+            return;
+        var board = gamestate.board();
+        if (board != journaled && !(board == edited && edited_from == journaled))
+            journal.begin(gamestate);
+        journal.append(action, board.index(x, y));
+        this.journaled = board;
+    }
+    
+    
+    /// work stack of cell indices for [#revealEmpty(int, int, Board)], kept around so flood fills don't allocate
+    private int[] flood = new int[64];
+    
+    /// Reveals the whole empty region around an empty cell, and all the numbers bordering it
+    ///
+    /// This is a scanline fill, every cell popped off the stack is widened into the full horizontal span
+    /// of hidden empty cells it's in, then the rows above and below the span are revealed
+    /// and the first cell of each run of hidden empty cells in them is pushed.
+    /// Empty cells only get revealed when their span is, so being revealed already means visited
     private void revealEmpty(int x, int y, Board board) {
-        if (!(board.get(x, y) instanceof Cell(var t, var s)
-                && t instanceof CellType.Safe(int n) && n == 0
-                && s != CellState.REVEALED))
+        var start = board.index(x, y);
+        if (!isHiddenEmpty(board.getCode(start)))
             return;
         
-        var empty_cell = new Cell(CellType.Safe.EMPTY, CellState.REVEALED);
-        board.set(x, y, empty_cell);
+        var width = sizes.width();
+        var height = sizes.height();
+        var stack = flood;
+        var top = 0;
+        stack[top++] = start;
         
-        record Point(int x, int y) {}
-        var flood = new HashSet<Point>();
-        
-        flood.add(new Point(x, y));
-        
-        while (!flood.isEmpty()) {
+        while (top > 0) {
+            var seed = stack[--top];
+            if (!isHiddenEmpty(board.getCode(seed)))
+                continue;
+            
+            var y2 = seed / width;
+            var row_start = y2 * width;
+            var row_end = row_start + width - 1;
+            
+            var left = seed;
+            while (left > row_start && isHiddenEmpty(board.getCode(left - 1)))
+                left--;
+            var right = seed;
+            while (right < row_end && isHiddenEmpty(board.getCode(right + 1)))
+                right++;
             
-            var point = flood.iterator().next();
-            flood.remove(point);
-            var x2 = point.x;
+            // the span and the cell just past either end of it
+            var from = Math.max(row_start, left - 1);
+            var to = Math.min(row_end, right + 1);
             
-            var y2 = point.y;
+            for (int i = from; i <= to; i++)
+                revealSafe(i, board);
             
-            for (int y3 = Math.max(0, y2 - 1); y3 <= Math.min(sizes.height() - 1, y2 + 1); y3++)
-                for (int x3 = Math.max(0, x2 - 1); x3 <= Math.min(sizes.width() - 1, x2 + 1); x3++)
-                    if (board.get(x3, y3) instanceof Cell(var type, var state)
-                            && type instanceof CellType.Safe(var number)
-                            && state != CellState.REVEALED) {
-                        board.set(x3, y3, new Cell(new CellType.Safe(number), CellState.REVEALED));
-                        if (number == 0) {
-//                                revealEmpty(x2, y2, board);
-                            flood.add(new Point(x3, y3));
+            for (int dy = -1; dy <= 1; dy += 2) {
+                if (y2 + dy < 0 || y2 + dy >= height)
+                    continue;
+                var offset = dy * width;
+                var in_run = false;
+                for (int i = from + offset; i <= to + offset; i++) {
+                    if (isHiddenEmpty(board.getCode(i))) {
+                        if (!in_run) {
+                            if (top == stack.length)
+                                flood = stack = Arrays.copyOf(stack, top * 2);
+                            stack[top++] = i;
                         }
+                        in_run = true;
+                    } else {
+                        revealSafe(i, board);
+                        in_run = false;
                     }
+                }
+            }
         }
-        
+    }
+    
+    private static boolean isHiddenEmpty(byte code) {
+        return number(code) == 0 && !isRevealed(code);
+    }
+    
+    private static void revealSafe(int index, Board board) {
+        var code = board.getCode(index);
+        if (isSafeCode(code) && !isRevealed(code))
+            board.setCode(index, withState(code, CellState.REVEALED));
     }
     
     private boolean internalReveal(int x, int y, Board board) {
-        if (board.get(x, y).state() != CellState.UNKNOWN)
+        var index = board.index(x, y);
+        var code = board.getCode(index);
+        if (!isUnknown(code))
             return true;
-        return switch (board.get(x, y).type()) {
-            case CellType.Safe(var number) -> {
-                if (number == 0) {
-                    revealEmpty(x, y, board);
-                } else {
-                    board.set(x, y, new Cell(new CellType.Safe(number), CellState.REVEALED));
-                }
-                
-                yield true;
-            }
-            case CellType.Mine ignored -> {
+        return switch (typeOf(code)) {
+            case CellCodes.MINE -> {
                 // if it's the first move, move the mine to a random location
 //                if (first) {
 //                    // this is a bit inefficient, but it's not like it's going to be called often
@@ -128,20 +248,62 @@ public abstract class AbstractMinsweeper implements Minsweeper {
 //                    yield internalReveal(x, y, board);
 //                } else {
 //                }
-                board.set(x, y, new Cell(CellType.MINE, CellState.REVEALED));
+                board.setCode(index, withState(code, CellState.REVEALED));
                 yield false;
             }
+            case CellCodes.UNKNOWN -> true;
             
-            default -> true;
+            case 0 -> {
+                var before = edits.size();
+                revealEmpty(x, y, board);
+                flooded += edits.size() - before;
+                yield true;
+            }
+            default -> {
+                board.setCode(index, withState(code, CellState.REVEALED));
+                yield true;
+            }
         };
     }
     
+    /// how many cells the current move has revealed by flooding, for its [MoveEvent]
+    private int flooded;
+    
+    /// Commits a [MoveEvent] for the move that just went from `from` to the current board, if it's being recorded
+    private void commit(MoveEvent event, String action, int x, int y, Board from) {
+        event.end();
+        if (event.shouldCommit()) {
+            var edits = (gamestate.board() != from) ? editsSince(from) : null;
+            event.action = action;
+            event.x = x;
+            event.y = y;
+            event.cellsChanged = (edits != null) ? edits.size() : 0;
+            event.floodSize = flooded;
+            event.status = gamestate.status().name();
+            event.commit();
+        }
+    }
+    
     @Override
     public GameState reveal(int x, int y) {
+        var event = new MoveEvent();
+        event.begin();
+        var from = gamestate.board();
+        flooded = 0;
+        var state = makeReveal(x, y);
+        commit(event, MoveEvent.REVEAL, x, y, from);
+        return state;
+    }
+    
+    private GameState makeReveal(int x, int y) {
         if (gamestate.status() != GameStatus.PLAYING) return getGameState();
         if (!(x >= 0 && x < sizes.width() && y >= 0 && y < sizes.height())) return getGameState();
+        // revealed and flagged cells can't be revealed
+        if (!isUnknown(gamestate.board().getCode(gamestate.board().index(x, y)))) return getGameState();
         
-        var board = gamestate.board().clone();
+        journal(MoveJournal.REVEAL, x, y);
+        
+        var board = edit();
         
         var success = internalReveal(x, y, board);
         
@@ -169,28 +331,41 @@ public abstract class AbstractMinsweeper implements Minsweeper {
     
     @Override
     public GameState clearAround(int x, int y) {
+        var event = new MoveEvent();
+        event.begin();
+        var from = gamestate.board();
+        flooded = 0;
+        var state = makeClearAround(x, y);
+        commit(event, MoveEvent.CLEAR_AROUND, x, y, from);
+        return state;
+    }
+    
+    private GameState makeClearAround(int x, int y) {
         if (gamestate.status() != GameStatus.PLAYING) return getGameState();
         if (!(x >= 0 && x < sizes.width() && y >= 0 && y < sizes.height())) return getGameState();
         
-        var board = gamestate.board().clone();
-        
-        if (!(board.get(x, y) instanceof Cell(var type, var state)
-                && type instanceof CellType.Safe(var number)
-                && state == CellState.REVEALED)) return getGameState();
+        var code = gamestate.board().getCode(gamestate.board().index(x, y));
+        if (!(isSafeCode(code) && isRevealed(code))) return getGameState();
+        var number = number(code);
         
         var marked_mines = 0;
         
         for (int y2 = Math.max(0, y - 1); y2 <= Math.min(sizes.height() - 1, y + 1); y2++)
             for (int x2 = Math.max(0, x - 1); x2 <= Math.min(sizes.width() - 1, x + 1); x2++)
-                if (board.get(x2, y2).state() == CellState.FLAGGED)
+                if (isFlagged(gamestate.board().getCode(gamestate.board().index(x2, y2))))
                     marked_mines += 1;
         
+        if (marked_mines != number) return getGameState();
+        
+        journal(MoveJournal.CLEAR_AROUND, x, y);
+        
+        var board = edit();
+        
         var success = true;
         
-        if (marked_mines == number)
-            for (int y2 = Math.max(0, y - 1); y2 <= Math.min(sizes.height() - 1, y + 1); y2++)
-                for (int x2 = Math.max(0, x - 1); x2 <= Math.min(sizes.width() - 1, x + 1); x2++)
-                    success = internalReveal(x2, y2, board) && success;
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(sizes.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(sizes.width() - 1, x + 1); x2++)
+                success = internalReveal(x2, y2, board) && success;
         
         this.gamestate = gamestate.withBoard(board);
         
@@ -215,19 +390,30 @@ public abstract class AbstractMinsweeper implements Minsweeper {
     }
     
     public GameState setFlagged(int x, int y, boolean flagged) {
+        var event = new MoveEvent();
+        event.begin();
+        var from = gamestate.board();
+        flooded = 0;
+        var state = makeFlagged(x, y, flagged);
+        commit(event, MoveEvent.FLAG, x, y, from);
+        return state;
+    }
+    
+    private GameState makeFlagged(int x, int y, boolean flagged) {
         if (gamestate.status() != GameStatus.PLAYING) return getGameState();
         if (!(x >= 0 && x < sizes.width() && y >= 0 && y < sizes.height())) return getGameState();
-        if (!(gamestate.board().get(x, y) instanceof Cell(var type, var state)
-                && state != CellState.REVEALED))
+        var code = gamestate.board().getCode(gamestate.board().index(x, y));
+        if (isRevealed(code) || flagged == isFlagged(code))
             return getGameState();
         
-        var board = gamestate.board().clone();
+        journal(flagged ? MoveJournal.FLAG : MoveJournal.UNFLAG, x, y);
+        
+        var board = edit();
         var remaining_mines = gamestate.remainingMines();
         
-        remaining_mines += (flagged != (state == CellState.FLAGGED)) ?
-                ((flagged) ? -1 : 1) : 0;
+        remaining_mines += (flagged) ? -1 : 1;
         
-        board.set(x, y, new Cell(type, (flagged) ? CellState.FLAGGED : CellState.UNKNOWN));
+        board.setCode(board.index(x, y), withState(code, (flagged) ? CellState.FLAGGED : CellState.UNKNOWN));
         
         this.gamestate = gamestate.withBoard(board).withRemainingMines(remaining_mines);
         
@@ -52,44 +52,43 @@ public abstract class AbstractRandomMinsweeper extends AbstractHidingMinsweeper
         return getGameState();
     }
     
-    private static final Cell MINE = new Cell(CellType.MINE, CellState.UNKNOWN);
+    /// Start or restarts a Minsweeper game from a seed
+    ///
+    /// Same as [#start()] except the board is made from `seed`,
+    /// so starting with the same seed always gives the same game
+    ///
+    /// @param seed the seed
+    /// @return the state of the game
+    /// @see Board#random(BoardSize, long)
+    public GameState start(long seed) {
+        
+        this.gamestate = generateGame(seed);
+        
+        return getGameState();
+    }
     
     /// Generates a random Minsweeper game
     ///
+    /// The board is still made from a seed, which is kept in [GameState#seed()]
+    ///
     /// @return a randomly generated gamestate
     protected GameState generateGame() {
-        var temp_board = new Board(sizes);
-        var mines = 0;
-        while (mines < sizes.mines()) {
-            var x = ThreadLocalRandom.current().nextInt(sizes.width());
-            var y = ThreadLocalRandom.current().nextInt(sizes.height());
-            
-            if (temp_board.get(x, y).type() instanceof CellType.Safe) {
-                temp_board.set(x, y, MINE);
-                mines++;
-            }
-        }
-        
-        generateNmbers(temp_board);
-        
-        return new GameState(GameStatus.PLAYING, temp_board, sizes.mines());
+        return generateGame(ThreadLocalRandom.current().nextLong());
     }
     
-    /// I am not fixing the typo
+    /// Generates a random Minsweeper game from a seed
     ///
-    /// @param board board bc yk boards
-    private void generateNmbers(Board board) {
-        for (int y = 0; y < sizes.height(); y++)
-            for (int x = 0; x < sizes.width(); x++)
-                if (board.get(x, y).type() instanceof CellType.Safe)
-                    board.set(x, y, new Cell(new CellType.Safe(0), CellState.UNKNOWN));
-        
-        for (int y = 0; y < sizes.height(); y++)
-            for (int x = 0; x < sizes.width(); x++)
-                if (board.get(x, y).type() instanceof CellType.Mine)
-                    for (int y2 = Math.max(0, y - 1); y2 <= Math.min(sizes.height() - 1, y + 1); y2++)
-                        for (int x2 = Math.max(0, x - 1); x2 <= Math.min(sizes.width() - 1, x + 1); x2++)
-                            if (board.get(x2, y2).type() instanceof CellType.Safe(var number))
-                                board.set(x2, y2, new Cell(new CellType.Safe(number + 1), CellState.UNKNOWN));
+    /// @param seed the seed
+    /// @return a randomly generated gamestate
+    protected GameState generateGame(long seed) {
+        return generateGame(sizes, seed);
+    }
+    
+    static GameState generateGame(BoardSize sizes) {
+        return generateGame(sizes, ThreadLocalRandom.current().nextLong());
+    }
+    
+    static GameState generateGame(BoardSize sizes, long seed) {
+        return new GameState(GameStatus.PLAYING, Board.random(sizes, seed), sizes.mines());
     }
 }
@@ -0,0 +1,557 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import static canaryprism.minsweeper.CellCodes.*;
+
+/// A [Board] stored as bit planes, for when you want to look at 64 cells at once
+///
+/// Every plane is a `long[]` with one bit per cell, each row starts on a new word
+/// so a row is [#wordsPerRow()] words long and cell `(x, y)` is bit `x % 64` of word `y * wordsPerRow() + x / 64`.
+/// Bits past the width of the board are always 0
+///
+/// There are planes for [mines][#mines()], [safe cells][#safe()], [revealed][#revealed()] and [flagged][#flagged()] cells,
+/// and the [numbers][#numbers()] of safe cells stored bit-sliced, that is as 4 planes holding one bit of the number each.
+/// [#countAround(long[], boolean)] counts the neighbours of every cell in a plane at once using those same bit-sliced numbers,
+/// which is what [#generateNumbers()] uses to number a whole board in a few word operations per row
+///
+/// The planes returned are the actual storage, not copies, so changing them changes the bitboard
+public final class BitBoard {
+    
+    private final BoardSize size;
+    private final int words_per_row;
+    
+    private final long[] mines;
+    private final long[] safe;
+    private final long[] revealed;
+    private final long[] flagged;
+    private final long[][] numbers;
+    
+    /// Constructs an empty BitBoard, where nothing is set in any plane
+    ///
+    /// @param size the size of the board
+    public BitBoard(BoardSize size) {
+        this.size = size;
+        this.words_per_row = (size.width() + 63) >>> 6;
+        var words = words_per_row * size.height();
+        this.mines = new long[words];
+        this.safe = new long[words];
+        this.revealed = new long[words];
+        this.flagged = new long[words];
+        this.numbers = new long[4][words];
+    }
+    
+    /// Makes a BitBoard out of a [Board]
+    ///
+    /// Cells that are [CellType.Unknown] are neither mines nor safe
+    ///
+    /// @param board the board
+    /// @return the bitboard
+    public static BitBoard of(Board board) {
+        var size = board.getSize();
+        var bits = new BitBoard(size);
+        var width = size.width();
+        var cells = board.cells();
+        
+        // the row being converted, padded so whole longs can always be read from it
+        var row = new byte[(bits.words_per_row << 6)];
+        var leaf = new byte[PersistentCells.LEAF_SIZE];
+        var leaf_start = -1;
+        for (int y = 0; y < size.height(); y++) {
+            // copy the row out of however many leaves it's in
+            for (int x = 0, i = y * width; x < width; ) {
+                var start = i & -PersistentCells.LEAF_SIZE;
+                if (start != leaf_start) {
+                    cells.copyLeaf(start, leaf);
+                    leaf_start = start;
+                }
+                var count = Math.min(width - x, start + PersistentCells.LEAF_SIZE - i);
+                System.arraycopy(leaf, i - start, row, x, count);
+                x += count;
+                i += count;
+            }
+            
+            // 8 cells at a time, gathering each bit of their codes into a byte
+            for (int w = 0; w < bits.words_per_row; w++) {
+                long b0 = 0, b1 = 0, b2 = 0, b3 = 0, s0 = 0, s1 = 0;
+                for (int shift = 0; shift < 64; shift += 8) {
+                    var packed = (long) LONGS.get(row, (w << 6) + shift);
+                    b0 |= gather(packed, 0) << shift;
+                    b1 |= gather(packed, 1) << shift;
+                    b2 |= gather(packed, 2) << shift;
+                    b3 |= gather(packed, 3) << shift;
+                    s0 |= gather(packed, STATE_SHIFT) << shift;
+                    s1 |= gather(packed, STATE_SHIFT + 1) << shift;
+                }
+                var mask = bits.rowMask(w);
+                var word = y * bits.words_per_row + w;
+                // 0 to 8 are safe, 9 is MINE and 10 is UNKNOWN
+                var is_safe = (~b3 | ~(b0 | b1 | b2)) & mask;
+                bits.safe[word] = is_safe;
+                bits.mines[word] = b3 & b0 & ~b1 & ~b2 & mask;
+                bits.numbers[0][word] = b0 & is_safe;
+                bits.numbers[1][word] = b1 & is_safe;
+                bits.numbers[2][word] = b2 & is_safe;
+                bits.numbers[3][word] = b3 & is_safe;
+                bits.revealed[word] = s0 & ~s1 & mask;
+                bits.flagged[word] = s1 & ~s0 & mask;
+            }
+        }
+        return bits;
+    }
+    
+    /// bit `bit` of each byte of `packed`, as the 8 bits of a byte
+    private static long gather(long packed, int bit) {
+        return ((packed >>> bit) & 0x0101010101010101L) * 0x0102040810204080L >>> 56;
+    }
+    
+    /// Makes a [Board] out of this BitBoard
+    ///
+    /// Cells that are neither mines nor safe become [CellType.Unknown]
+    ///
+    /// @return the board
+    public Board toBoard() {
+        var width = size.width();
+        var codes = new byte[Board.length(size)];
+        for (int y = 0; y < size.height(); y++) {
+            for (int w = 0; w < words_per_row; w++) {
+                var word = y * words_per_row + w;
+                long is_safe = safe[word], not_safe = ~is_safe, is_mine = mines[word] & not_safe,
+                        n0 = numbers[0][word] & is_safe, n1 = numbers[1][word] & is_safe,
+                        n2 = numbers[2][word] & is_safe, n3 = numbers[3][word] & is_safe,
+                        is_revealed = revealed[word], is_flagged = flagged[word] & ~is_revealed;
+                
+                // 8 cells at a time, one per byte of a long.
+                // MINE and UNKNOWN are 9 and 10 so a cell that isn't safe is 10 minus whether it's a mine,
+                // and no byte ever carries into the next one
+                for (int x = w << 6, end = Math.min(width, x + 64), shift = 0; x < end; x += 8, shift += 8) {
+                    var packed = spread(n0, shift)
+                            | spread(n1, shift) << 1
+                            | spread(n2, shift) << 2
+                            | spread(n3, shift) << 3;
+                    packed += spread(not_safe, shift) * CellCodes.UNKNOWN - spread(is_mine, shift);
+                    packed += spread(is_revealed, shift) * (CellState.REVEALED.ordinal() << STATE_SHIFT)
+                            + spread(is_flagged, shift) * (CellState.FLAGGED.ordinal() << STATE_SHIFT);
+                    
+                    var i = y * width + x;
+                    if (end - x >= 8) {
+                        LONGS.set(codes, i, packed);
+                    } else {
+                        for (int j = 0; j < end - x; j++, packed >>>= 8)
+                            codes[i + j] = (byte) packed;
+                    }
+                }
+            }
+        }
+        return new Board(size, codes);
+    }
+    
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    /// each bit of the index moved to the bottom of its own byte
+    private static final long[] SPREAD = new long[256];
+    
+    static {
+        for (int i = 0; i < 256; i++)
+            for (int bit = 0; bit < 8; bit++)
+                if ((i & (1 << bit)) != 0)
+                    SPREAD[i] |= 1L << (bit << 3);
+    }
+    
+    private static long spread(long bits, int shift) {
+        return SPREAD[(int) (bits >>> shift) & 0xff];
+    }
+    
+    /// counts whole vectors of a row at once, see [#countAround(long[], boolean)]
+    ///
+    /// implemented by `VectorCounter`, which is compiled on its own in the `vector` source set
+    /// since javac warns about every compile that uses the still incubating Vector API,
+    /// so it's only ever loaded by reflection
+    interface RowCounter {
+        
+        /// @return how many words are counted at once
+        int lanes();
+        
+        /// Counts words `from` until `to` of a row, as many as fit in whole vectors
+        ///
+        /// every word counted needs a word before and after it in the same row,
+        /// and none of them can be the last word of the row since that one needs masking
+        ///
+        /// @param plane the plane to count
+        /// @param count the 4 count planes to write to
+        /// @param row the index of the first word of the row
+        /// @param words_per_row how many words each row takes
+        /// @param above whether there is a row above
+        /// @param below whether there is a row below
+        /// @param include_self whether a cell counts itself
+        /// @param from the first word of the row to count
+        /// @param to the word of the row to stop before
+        /// @return the word of the row this stopped at, everything from there on still needs counting
+        int countRow(long[] plane, long[][] count, int row, int words_per_row,
+                     boolean above, boolean below, boolean include_self, int from, int to);
+    }
+    
+    /// the [RowCounter] to use, or `null` if there isn't one
+    ///
+    /// it needs the `jdk.incubator.vector` module, which is only there if it was added with `--add-modules`.
+    /// setting the system property `canaryprism.minsweeper.vectors` to `false` turns it off anyway
+    private static final RowCounter VECTORS = vectors();
+    
+    private static RowCounter vectors() {
+        if (!Boolean.parseBoolean(System.getProperty("canaryprism.minsweeper.vectors", "true")))
+            return null;
+        var vector = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vector.isEmpty())
+            return null;
+        try {
+            // the module descriptor doesn't require it so that compiling this module doesn't touch it either
+            BitBoard.class.getModule().addReads(vector.get());
+            var counter = (RowCounter) Class.forName("canaryprism.minsweeper.VectorCounter")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            return (counter.lanes() > 1) ? counter : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+    
+    /// Gets the [BoardSize] of the BitBoard
+    ///
+    /// @return the board's size
+    public BoardSize getSize() {
+        return size;
+    }
+    
+    /// Gets how many words each row of a plane takes
+    ///
+    /// @return the amount of `long`s per row
+    public int wordsPerRow() {
+        return words_per_row;
+    }
+    
+    /// Gets the plane of [CellType.Mine] cells
+    ///
+    /// @return the mine plane
+    public long[] mines() {
+        return mines;
+    }
+    
+    /// Gets the plane of [CellType.Safe] cells
+    ///
+    /// @return the safe plane
+    public long[] safe() {
+        return safe;
+    }
+    
+    /// Gets the plane of [REVEALED][CellState#REVEALED] cells
+    ///
+    /// @return the revealed plane
+    public long[] revealed() {
+        return revealed;
+    }
+    
+    /// Gets the plane of [FLAGGED][CellState#FLAGGED] cells
+    ///
+    /// @return the flagged plane
+    public long[] flagged() {
+        return flagged;
+    }
+    
+    /// Gets the [number][CellType.Safe#number]s of the safe cells, bit-sliced
+    ///
+    /// `numbers()[b]` is the plane of bit `b` of every number.
+    /// Only cells in the [safe plane][#safe()] have a meaningful number
+    ///
+    /// @return the 4 number planes
+    public long[][] numbers() {
+        return numbers;
+    }
+    
+    /// Makes a plane of [UNKNOWN][CellState#UNKNOWN] cells, the ones that are neither revealed nor flagged
+    ///
+    /// @return a new plane of unknown cells
+    public long[] unknown() {
+        var unknown = new long[revealed.length];
+        for (int y = 0; y < size.height(); y++)
+            for (int w = 0, i = y * words_per_row; w < words_per_row; w++, i++)
+                unknown[i] = ~(revealed[i] | flagged[i]) & rowMask(w);
+        return unknown;
+    }
+    
+    /// Checks if a cell is in a plane
+    ///
+    /// @param plane the plane
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return whether the cell's bit is set
+    public boolean get(long[] plane, int x, int y) {
+        return (plane[word(x, y)] >>> x & 1) != 0;
+    }
+    
+    /// Sets or clears a cell in a plane
+    ///
+    /// @param plane the plane
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @param value whether the cell's bit should be set
+    public void set(long[] plane, int x, int y, boolean value) {
+        var word = word(x, y);
+        if (value)
+            plane[word] |= 1L << x;
+        else
+            plane[word] &= ~(1L << x);
+    }
+    
+    /// Sets `count` cells of an empty plane, picked uniformly at random
+    ///
+    /// This uses Floyd's sampling, which takes exactly one random number per cell picked no matter how full the plane gets.
+    /// If more than half the cells are to be set, it picks the cells to leave clear instead,
+    /// so it's never more than half the cells worth of random numbers
+    ///
+    /// @param plane the plane, which should have nothing set
+    /// @param count how many cells to set
+    /// @param random where to get random numbers from
+    /// @throws IllegalArgumentException if `count` is negative or more than the amount of cells
+    public void setRandom(long[] plane, int count, RandomGenerator random) {
+        setRandom(plane, words_per_row, size.width(), size.height(), count, random);
+    }
+    
+    /// [#setRandom(long\[\], int, RandomGenerator)] for a plane that isn't part of a BitBoard
+    ///
+    /// @param plane the plane, laid out like a BitBoard's with `words_per_row` words per row
+    /// @param words_per_row the amount of words each row takes
+    /// @param width the width of the plane
+    /// @param height the height of the plane
+    /// @param count how many cells to set
+    /// @param random where to get random numbers from
+    static void setRandom(long[] plane, int words_per_row, int width, int height, int count, RandomGenerator random) {
+        var cells = width * height;
+        if (count < 0 || count > cells)
+            throw new IllegalArgumentException("Can't set " + count + " of " + cells + " cells");
+        
+        // picking the cells to leave clear instead means starting full and clearing them
+        var flip = count > cells / 2;
+        if (flip)
+            for (int y = 0; y < height; y++)
+                for (int w = 0; w < words_per_row; w++)
+                    plane[y * words_per_row + w] = rowMask(w, width);
+        
+        // Floyd's: for each j of the last `picks` indices pick a random index up to j,
+        // and if that's been picked already pick j itself, which can't have been since every pick so far was below j
+        var picks = flip ? cells - count : count;
+        for (int j = cells - picks; j < cells; j++) {
+            var pick = random.nextInt(j + 1);
+            var word = (pick / width) * words_per_row + ((pick % width) >>> 6);
+            var bit = 1L << (pick % width);
+            if (((plane[word] & bit) != 0) != flip) {
+                pick = j;
+                word = (pick / width) * words_per_row + ((pick % width) >>> 6);
+                bit = 1L << (pick % width);
+            }
+            plane[word] ^= bit;
+        }
+    }
+    
+    /// Moves the set cells in a rectangle to random clear cells outside of it
+    ///
+    /// If the plane was [set at random][#setRandom(long\[\], int, RandomGenerator)] it still is,
+    /// just out of only the ways that leave the rectangle clear, since every cell outside is as likely to be moved to
+    ///
+    /// @param plane the plane
+    /// @param left the leftmost column of the rectangle
+    /// @param top the top row of the rectangle
+    /// @param right the rightmost column of the rectangle
+    /// @param bottom the bottom row of the rectangle
+    /// @param random where to get random numbers from
+    /// @throws IllegalArgumentException if there aren't enough clear cells outside the rectangle
+    void moveOut(long[] plane, int left, int top, int right, int bottom, RandomGenerator random) {
+        var width = size.width();
+        var height = size.height();
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(width - 1, right);
+        bottom = Math.min(height - 1, bottom);
+        
+        long outside = (long) width * height - (long) (right - left + 1) * (bottom - top + 1);
+        long set = 0;
+        for (var word : plane)
+            set += Long.bitCount(word);
+        if (set > outside)
+            throw new IllegalArgumentException("Not enough room outside the rectangle");
+        
+        var moved = 0;
+        for (int y = top; y <= bottom; y++)
+            for (int x = left; x <= right; x++) {
+                var word = y * words_per_row + (x >>> 6);
+                var bit = 1L << x;
+                if ((plane[word] & bit) != 0) {
+                    plane[word] &= ~bit;
+                    moved++;
+                }
+            }
+        
+        // there's always at least `moved` clear cells outside, so this doesn't take too many tries
+        // unless the board is almost full
+        while (moved > 0) {
+            var x = random.nextInt(width);
+            var y = random.nextInt(height);
+            if (x >= left && x <= right && y >= top && y <= bottom)
+                continue;
+            var word = y * words_per_row + (x >>> 6);
+            var bit = 1L << x;
+            if ((plane[word] & bit) == 0) {
+                plane[word] |= bit;
+                moved--;
+            }
+        }
+    }
+    
+    /// Gets the index of the word a cell is in
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the index of the word, in any plane
+    public int word(int x, int y) {
+        Objects.checkIndex(x, size.width());
+        Objects.checkIndex(y, size.height());
+        return y * words_per_row + (x >>> 6);
+    }
+    
+    /// Gets the bits of a row's word that are actually on the board
+    ///
+    /// @param w which word of the row
+    /// @return the mask of bits that are cells
+    public long rowMask(int w) {
+        return rowMask(w, size.width());
+    }
+    
+    private static long rowMask(int w, int width) {
+        var bits = width - (w << 6);
+        return (bits >= 64) ? -1L : (1L << bits) - 1;
+    }
+    
+    /// Counts the cells in `plane` around every cell
+    ///
+    /// The counts are returned bit-sliced like [#numbers()].
+    /// Each row is counted by adding up the row above, the row itself and the row below,
+    /// each shifted a cell left and right, with a 4 bit adder that works on 64 cells at once.
+    /// If the `jdk.incubator.vector` module is there, wide rows are counted several words at a time with the Vector API
+    ///
+    /// @param plane the plane to count
+    /// @param include_self whether a cell counts itself, making this count the 3x3 square around it
+    /// @return the 4 count planes
+    public long[][] countAround(long[] plane, boolean include_self) {
+        var count = new long[4][plane.length];
+        for (int y = 0; y < size.height(); y++) {
+            var row = y * words_per_row;
+            var above = y > 0;
+            var below = y < size.height() - 1;
+            var w = 0;
+            if (VECTORS != null && words_per_row > 2) {
+                // the first and last words of a row are left to the scalar version, see RowCounter#countRow
+                countRow(plane, count, row, above, below, include_self, 0, 1);
+                w = VECTORS.countRow(plane, count, row, words_per_row, above, below, include_self, 1, words_per_row - 1);
+            }
+            countRow(plane, count, row, above, below, include_self, w, words_per_row);
+        }
+        return count;
+    }
+    
+    private void countRow(long[] plane, long[][] count, int row, boolean above, boolean below, boolean include_self, int from, int to) {
+        for (int w = from; w < to; w++) {
+            var i = row + w;
+            long b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                if ((dy < 0 && !above) || (dy > 0 && !below))
+                    continue;
+                var j = i + dy * words_per_row;
+                var word = plane[j];
+                var before = (w > 0) ? plane[j - 1] : 0;
+                var after = (w < words_per_row - 1) ? plane[j + 1] : 0;
+                
+                // bit x of these is the cell at x - 1 and x + 1
+                var left = word << 1 | before >>> 63;
+                var right = word >>> 1 | after << 63;
+                var middle = (dy != 0 || include_self) ? word : 0;
+                
+                // full adder across the 3 cells gives a 2 bit sum, then add that into the 4 bit count
+                var sum = left ^ middle ^ right;
+                var twos = (left & middle) | (right & (left ^ middle));
+                
+                var carry = b0 & sum;
+                b0 ^= sum;
+                var carry2 = (b1 & twos) | (carry & (b1 ^ twos));
+                b1 ^= twos ^ carry;
+                var carry4 = b2 & carry2;
+                b2 ^= carry2;
+                b3 ^= carry4;
+            }
+            var mask = rowMask(w);
+            count[0][i] = b0 & mask;
+            count[1][i] = b1 & mask;
+            count[2][i] = b2 & mask;
+            count[3][i] = b3 & mask;
+        }
+    }
+    
+    /// Works out the [number][CellType.Safe#number] of every cell from the [mine plane][#mines()]
+    ///
+    /// Every cell that isn't a mine becomes safe
+    public void generateNumbers() {
+        var count = countAround(mines, false);
+        for (int y = 0; y < size.height(); y++)
+            for (int w = 0, i = y * words_per_row; w < words_per_row; w++, i++) {
+                safe[i] = ~mines[i] & rowMask(w);
+                for (int b = 0; b < 4; b++)
+                    numbers[b][i] = count[b][i] & safe[i];
+            }
+    }
+    
+    /// Counts how many cells of each code there are, a word at a time
+    ///
+    /// @return the counts, indexed by code
+    int[] counts() {
+        var counts = new int[CODES];
+        for (int y = 0; y < size.height(); y++)
+            for (int w = 0, i = y * words_per_row; w < words_per_row; w++, i++) {
+                long row = rowMask(w), is_revealed = revealed[i], is_flagged = flagged[i] & ~is_revealed,
+                        is_safe = safe[i], is_mine = mines[i] & ~is_safe, is_unknown = row & ~is_safe & ~is_mine;
+                long n0 = numbers[0][i], n1 = numbers[1][i], n2 = numbers[2][i], n3 = numbers[3][i];
+                long[] states = { row & ~is_revealed & ~is_flagged, is_revealed, is_flagged };
+                for (int state = 0; state < states.length; state++) {
+                    var in_state = states[state];
+                    var shift = state << STATE_SHIFT;
+                    for (int number = 0; number <= 8; number++) {
+                        // the cells whose bit-sliced number is exactly this one
+                        var matches = is_safe
+                                & (((number & 1) != 0) ? n0 : ~n0) & (((number & 2) != 0) ? n1 : ~n1)
+                                & (((number & 4) != 0) ? n2 : ~n2) & (((number & 8) != 0) ? n3 : ~n3);
+                        counts[shift | number] += Long.bitCount(matches & in_state);
+                    }
+                    counts[shift | CellCodes.MINE] += Long.bitCount(is_mine & in_state);
+                    counts[shift | CellCodes.UNKNOWN] += Long.bitCount(is_unknown & in_state);
+                }
+            }
+        return counts;
+    }
+}
@@ -16,20 +16,85 @@
 
 package canaryprism.minsweeper;
 
-import java.util.ArrayList;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static canaryprism.minsweeper.CellCodes.*;
 
 /// Represents the board of a [Minsweeper] game
 ///
 /// A board holds [Cell]s and can be [clone][#clone()]ed
-public class Board extends ArrayList<ArrayList<Cell>> {
+///
+/// Cells are stored packed one byte each in row-major order,
+/// [#get(int, int)] hands out shared [Cell] instances so reading a board never allocates.
+/// The storage is persistent, so a [#clone()] shares everything with the original
+/// and only copies the parts of the board that either of them changes afterwards.
+///
+/// Boards too big for the heap can be [mapped][#mapped(Path, BoardSize)] from a file instead
+///
+/// The board also keeps a running count of how many of each kind of cell it has,
+/// so things like [#count(CellState)] or [#getHiddenSafeCount()] never have to look through the cells
+///
+/// The board can still be viewed as a list of rows for compatibility,
+/// but [#get(int, int)], [#set(int, int, Cell)] and the primitive accessors like [#getState(int, int)]
+/// are much faster
+///
+/// Before 6.0.0 a Board was an `ArrayList<ArrayList<Cell>>`. Now it's a fixed size [List] of rows
+/// that are views of the packed cells, so when migrating:
+/// - rows are [List]s, so `ArrayList<Cell> row = board.get(y)` becomes `List<Cell> row = board.get(y)`
+///   and the same goes for anything that takes a board or row as an `ArrayList`
+/// - `ensureCapacity` and `trimToSize` are gone, there's nothing to size
+/// - [#set(int, List)] and setting a cell in a row still work,
+///   but adding, removing or clearing rows or cells throws [UnsupportedOperationException]
+public class Board extends AbstractList<List<Cell>> implements RandomAccess {
     
     private final BoardSize size;
     
-    private Board(BoardSize size, Void ignored) {
-        super();
+    private final PersistentCells cells;
+    
+    /// how many cells there are of each code, indexed by code
+    ///
+    /// for a [generated][#generated(BoardSize, long)] board this is only how much each count changed
+    /// since it was generated, see [#generated]
+    private final int[] counts;
+    
+    /// the cells this board was generated from, if it was and nothing has needed its exact counts yet
+    ///
+    /// counting those needs the whole board generated, so until then [#counts] are on top of them,
+    /// and only ever asked for if something needs to know how many of a specific number there are.
+    /// all generated cells are [UNKNOWN][CellState#UNKNOWN] so everything else can be worked out without it
+    private final GeneratedBase generated;
+    
+    /// the seed this board was made from by [#random(BoardSize, long)], if it was
+    private final OptionalLong seed;
+    
+    /// if set, every index that's written to gets added to it
+    private IndexList recorder;
+    
+    Board(BoardSize size, PersistentCells cells, int[] counts) {
+        this(size, cells, counts, null, OptionalLong.empty());
+    }
+    
+    private Board(BoardSize size, PersistentCells cells, int[] counts, GeneratedBase generated, OptionalLong seed) {
         this.size = size;
+        this.cells = cells;
+        this.counts = counts;
+        this.generated = generated;
+        this.seed = seed;
+    }
+    
+    Board(BoardSize size, byte[] codes) {
+        this(size, PersistentCells.of(codes), new int[CODES]);
+        
+        for (var code : codes)
+            counts[code]++;
     }
     
     /// Constructs a Board with a given size and cell to fill with
@@ -37,18 +102,9 @@ public class Board extends ArrayList<ArrayList<Cell>> {
     /// @param size the size of the board
     /// @param fill the [Cell] to fill the board with
     public Board(BoardSize size, Cell fill) {
-        this(size, ((Void) null));
-        
-        var width = size.width();
-        var height = size.height();
-        
-        var row = Stream.generate(() -> fill)
-                .limit(width)
-                .collect(Collectors.toCollection(ArrayList<Cell>::new));
+        this(size, PersistentCells.filled(length(size), encode(fill)), new int[CODES]);
         
-        Stream.generate(() -> new ArrayList<>(row))
-                .limit(height)
-                .forEach(this::add);
+        counts[encode(fill)] = cells.length();
     }
     /// Constructs a Board with a given size
     ///
@@ -60,6 +116,175 @@ public class Board extends ArrayList<ArrayList<Cell>> {
         this(size, new Cell(CellType.Safe.EMPTY, CellState.UNKNOWN));
     }
     
+    /// Creates a Board stored in a memory mapped file instead of on the heap
+    ///
+    /// The file is created, or overwritten if it already exists, and is filled with
+    /// [CellType.Safe(0)][CellType.Safe#EMPTY] cells with state [CellState#UNKNOWN] without writing any of them.
+    /// Until the board is first [clone][#clone()]d every change to it goes straight to the file,
+    /// after that both the board and its clones only copy the parts of it they change onto the heap,
+    /// and leave the file alone.
+    ///
+    /// Only the changed parts of the board take up heap,
+    /// so this is how to make boards that are way too big to fit in memory
+    ///
+    /// @param file the file to store the board in
+    /// @param size the size of the board
+    /// @return the board
+    /// @throws IOException if the file couldn't be created or mapped
+    /// @throws IllegalArgumentException if the board has more cells than an `int` can count
+    /// @see #open(Path)
+    public static Board mapped(Path file, BoardSize size) throws IOException {
+        return BoardFile.create(file, size);
+    }
+    
+    /// Creates a random Board that is only generated as it's looked at
+    ///
+    /// The board is split into 64x64 chunks which are generated the first time any cell in or next to them is read,
+    /// from a seed made from `seed` and the chunk's coordinates, so the same seed always makes the same board.
+    /// Generated chunks that haven't been changed are thrown away again once too many are around,
+    /// so how long it takes to make and how much memory it needs only depends on how much of it gets looked at.
+    ///
+    /// The board has exactly [BoardSize#mines()] mines and every cell is [UNKNOWN][CellState#UNKNOWN].
+    /// It can be played by giving it to a [SetMinsweeperGame], but nothing stops the first reveal from being a mine.
+    ///
+    /// [#count(Cell)] for a cell that isn't a mine needs every chunk generated once,
+    /// everything else like [#count(CellState)] or [#getHiddenSafeCount()] doesn't
+    ///
+    /// @param size the size of the board
+    /// @param seed the seed
+    /// @return the board
+    /// @throws IllegalArgumentException if the board has more cells than an `int` can count
+    public static Board generated(BoardSize size, long seed) {
+        var base = new GeneratedBase(size, seed);
+        var counts = new int[CODES];
+        // everything that isn't a mine is counted by the base
+        counts[code(CellCodes.MINE, CellState.UNKNOWN)] = size.mines();
+        return new Board(size, PersistentCells.backed(length(size), base, false), counts, base, OptionalLong.empty());
+    }
+    
+    /// Creates a random Board from a seed
+    ///
+    /// The mines are placed uniformly at random by a [SplittableRandom] made from `seed`,
+    /// so the same size and seed always make the same board, on any thread and on any machine.
+    /// That means a board made this way can be kept as just its seed, see [#seed()]
+    ///
+    /// The board has exactly [BoardSize#mines()] mines and every cell is [UNKNOWN][CellState#UNKNOWN]
+    ///
+    /// @param size the size of the board
+    /// @param seed the seed
+    /// @return the board
+    /// @throws IllegalArgumentException if the board has more cells than an `int` can count
+    public static Board random(BoardSize size, long seed) {
+        return random(size, seed, 0, 0, -1);
+    }
+    
+    /// Creates a random Board from a seed with no mines near a cell
+    ///
+    /// Same as [#random(BoardSize, long)] except there are no mines within `radius` cells of `(x, y)`,
+    /// so a radius of 0 makes revealing `(x, y)` safe and a radius of 1 makes it a 0.
+    /// Every board that leaves those cells clear is as likely as any other,
+    /// like generating [random][#random(BoardSize, long)] boards until one does but without the retrying.
+    /// If there isn't room for all the mines outside the cells they're allowed near it like normal
+    ///
+    /// The board keeps the seed, but making it again needs the same cell and radius as well
+    ///
+    /// @param size the size of the board
+    /// @param seed the seed
+    /// @param x the x coordinate of the cell
+    /// @param y the y coordinate of the cell
+    /// @param radius how far from the cell mines are kept, or -1 to not keep them from anywhere
+    /// @return the board
+    /// @throws IllegalArgumentException if the board has more cells than an `int` can count
+    ///                                  or `(x, y)` isn't on it
+    public static Board random(BoardSize size, long seed, int x, int y, int radius) {
+        return numberMines(placeMines(size, seed, x, y, radius), seed);
+    }
+    
+    /// The mines of [#random(BoardSize, long, int, int, int)], split out so they can be timed apart from the numbers
+    static BitBoard placeMines(BoardSize size, long seed, int x, int y, int radius) {
+        if (radius >= 0 && !(x >= 0 && x < size.width() && y >= 0 && y < size.height()))
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is not on the board");
+        var bits = new BitBoard(size);
+        var random = new SplittableRandom(seed);
+        bits.setRandom(bits.mines(), size.mines(), random);
+        if (radius >= 0) {
+            long clear = (long) (Math.min(size.width() - 1, x + radius) - Math.max(0, x - radius) + 1)
+                    * (Math.min(size.height() - 1, y + radius) - Math.max(0, y - radius) + 1);
+            if (size.mines() <= size.cells() - clear)
+                bits.moveOut(bits.mines(), x - radius, y - radius, x + radius, y + radius, random);
+        }
+        return bits;
+    }
+    
+    /// Numbers the cells around the mines from [#placeMines(BoardSize, long, int, int, int)] and makes the board
+    static Board numberMines(BitBoard bits, long seed) {
+        bits.generateNumbers();
+        var board = bits.toBoard();
+        return new Board(board.size, board.cells, board.counts, null, OptionalLong.of(seed));
+    }
+    
+    /// Creates a random Board from a seed drawn from a [RandomGenerator]
+    ///
+    /// This only takes one `long` from `random`, and the board is the same as [#random(BoardSize, long)] with it
+    ///
+    /// @param size the size of the board
+    /// @param random where to get the seed from
+    /// @return the board
+    /// @throws IllegalArgumentException if the board has more cells than an `int` can count
+    public static Board random(BoardSize size, RandomGenerator random) {
+        return random(size, random.nextLong());
+    }
+    
+    /// Opens a Board from a file written by [#save(Path)] or made by [#mapped(Path, BoardSize)]
+    ///
+    /// The file is memory mapped and only read, changes to the board are only copied onto the heap
+    ///
+    /// @param file the file
+    /// @return the board
+    /// @throws IOException if the file couldn't be read or isn't a board
+    public static Board open(Path file) throws IOException {
+        return BoardFile.open(file);
+    }
+    
+    /// Writes the board to a file that can be [opened][#open(Path)] again later
+    ///
+    /// The cells are written a bit at a time so this doesn't need the whole board on the heap either.
+    /// The file must not be one that a board is currently mapped from
+    ///
+    /// @param file the file to write to
+    /// @throws IOException if the file couldn't be written
+    public void save(Path file) throws IOException {
+        BoardFile.save(this, file);
+    }
+    
+    /// @return a [clone][#clone()] of this board that doesn't have its [seed][#seed()],
+    ///         for when it's going to be changed into a board the seed doesn't make
+    Board withoutSeed() {
+        return new Board(size, cells.fork(), counts.clone(), generated, OptionalLong.empty());
+    }
+    
+    static int length(BoardSize size) {
+        if (size.cells() > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Board too big");
+        return (int) size.cells();
+    }
+    
+    PersistentCells cells() {
+        return cells;
+    }
+    
+    /// Gets the seed this Board was made from
+    ///
+    /// This is only there for boards made by [#random(BoardSize, long)] and [clone][#clone()]s of them,
+    /// [#random(BoardSize, long)] with the same size and seed makes the board again as it was before any moves.
+    /// Boards made by [#random(BoardSize, long, int, int, int)] need the same cell and radius too.
+    /// Boards with their mines hidden never have a seed, since it would give the mines away
+    ///
+    /// @return the seed, or empty if the board wasn't made from one
+    public OptionalLong seed() {
+        return seed;
+    }
+    
     /// Gets the [BoardSize] of the Board
     ///
     /// @return the board's size
@@ -73,33 +298,265 @@ public class Board extends ArrayList<ArrayList<Cell>> {
     /// @param y the y coordinate
     /// @return the cell at the given coordinates
     public Cell get(int x, int y) {
-        return this.get(y).get(x);
+        return cell(cells.get(index(x, y)));
     }
     
+    /// Sets a cell on the board
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @param cell the cell to put at the given coordinates
+    /// @throws IllegalArgumentException if the cell is a [CellType.Safe] with a number that can't exist on a board
     public void set(int x, int y, Cell cell) {
-        this.get(y).set(x, cell);
+        write(index(x, y), encode(cell));
+    }
+    
+    /// Gets the [CellState] of a cell without going through [Cell]
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the state of the cell at the given coordinates
+    public CellState getState(int x, int y) {
+        return state(cells.get(index(x, y)));
+    }
+    
+    /// Gets the [CellType] of a cell without going through [Cell]
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the type of the cell at the given coordinates
+    public CellType getType(int x, int y) {
+        return type(cells.get(index(x, y)));
+    }
+    
+    /// Gets the [number][CellType.Safe#number] of a cell
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the number of the cell if it is [CellType.Safe], or `-1` otherwise
+    public int getNumber(int x, int y) {
+        return number(cells.get(index(x, y)));
+    }
+    
+    /// Checks if a cell is a [CellType.Mine]
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return whether the cell at the given coordinates is a mine
+    public boolean isMine(int x, int y) {
+        return isMineCode(cells.get(index(x, y)));
+    }
+    
+    /// Sets the [CellState] of a cell, keeping its [CellType]
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @param state the new state of the cell
+    public void setState(int x, int y, CellState state) {
+        var index = index(x, y);
+        write(index, withState(cells.get(index), state));
+    }
+    
+    int index(int x, int y) {
+        Objects.checkIndex(x, size.width());
+        Objects.checkIndex(y, size.height());
+        return y * size.width() + x;
+    }
+    
+    byte getCode(int index) {
+        return cells.get(index);
+    }
+    
+    void setCode(int index, byte code) {
+        write(index, code);
+    }
+    
+    private void write(int index, byte code) {
+        var old = cells.get(index);
+        if (old == code)
+            return;
+        counts[old]--;
+        counts[code]++;
+        cells.set(index, code);
+        if (recorder != null)
+            recorder.add(index);
+    }
+    
+    /// Starts or stops recording which cells change
+    ///
+    /// @param recorder the list to add changed indices to, or `null` to stop
+    void record(IndexList recorder) {
+        this.recorder = recorder;
+    }
+    
+    /// Counts how many cells on the board are equal to a given [Cell]
+    ///
+    /// @param cell the cell to count
+    /// @return the amount of cells equal to `cell`
+    public int count(Cell cell) {
+        var code = encode(cell);
+        if (generated != null && isSafeCode(code) && isUnknown(code))
+            return counts[code] + generated.counts()[code];
+        return counts[code];
+    }
+    
+    /// Counts how many cells on the board have a given [CellState]
+    ///
+    /// @param state the state to count
+    /// @return the amount of cells with the state
+    public int count(CellState state) {
+        var count = 0;
+        for (int type = 0; type < TYPES; type++)
+            count += counts[code(type, state)];
+        if (generated != null && state == CellState.UNKNOWN)
+            count += generated.length() - size.mines();
+        return count;
+    }
+    
+    /// Gets the amount of [CellType.Safe] cells that haven't been [REVEALED][CellState#REVEALED] yet
+    ///
+    /// Cells whose type is [CellType.Unknown] aren't counted,
+    /// so for a board where the mines are hidden this is always 0
+    ///
+    /// @return the amount of safe cells left to reveal
+    public int getHiddenSafeCount() {
+        var count = 0;
+        for (int number = 0; number <= 8; number++)
+            count += counts[code(number, CellState.UNKNOWN)] + counts[code(number, CellState.FLAGGED)];
+        if (generated != null)
+            count += generated.length() - size.mines();
+        return count;
+    }
+    
+    /// Gets the amount of [CellType.Mine] cells that have been [REVEALED][CellState#REVEALED]
+    ///
+    /// @return the amount of revealed mines
+    public int getRevealedMineCount() {
+        return counts[code(CellCodes.MINE, CellState.REVEALED)];
     }
     
     Board hideMines() {
-        return this.stream()
-                .map((row) -> row.stream()
-                        .map((cell) -> (cell.state() != CellState.REVEALED) ? new Cell(CellType.UNKNOWN, cell.state()) : cell)
-                        .collect(Collectors.toCollection(ArrayList::new)))
-                .collect(Collectors.toCollection(() -> new Board(size, ((Void) null))));
+        var hidden_counts = new int[CODES];
+        for (int code = 0; code < CODES; code++)
+            hidden_counts[HIDDEN[code]] += counts[code];
+        // generated cells are all unknown, so they all hide the same
+        if (generated != null)
+            hidden_counts[code(CellCodes.UNKNOWN, CellState.UNKNOWN)] += generated.length() - size.mines();
+        return new Board(size, cells.map(HIDDEN), hidden_counts);
+    }
+    
+    /// Hides the mines of only the cells that changed since `hidden` was made
+    ///
+    /// @param hidden this board's state before `changed` happened, with its mines hidden
+    /// @param changed every index that changed since then
+    /// @return this board with its mines hidden
+    Board hideMines(Board hidden, IndexList changed) {
+        var board = hidden.clone();
+        for (int i = 0; i < changed.size(); i++) {
+            var index = changed.get(i);
+            board.write(index, HIDDEN[cells.get(index)]);
+        }
+        return board;
     }
     
     boolean hasWon() {
-        return this.stream()
-                .flatMap(ArrayList::stream)
-                .noneMatch((cell) -> (cell.type() == CellType.MINE && cell.state() == CellState.REVEALED)
-                        || (cell.type() instanceof CellType.Safe && cell.state() != CellState.REVEALED));
+        return getHiddenSafeCount() == 0 && getRevealedMineCount() == 0;
+    }
+    
+    /// Gets a row of the board
+    ///
+    /// The returned row is a view, setting cells in it sets them on the board
+    ///
+    /// @param y the y coordinate of the row
+    /// @return the row
+    @Override
+    public List<Cell> get(int y) {
+        Objects.checkIndex(y, size.height());
+        return new Row(y);
+    }
+    
+    /// Sets a row of the board by copying the cells of `row` into it
+    ///
+    /// @param y the y coordinate of the row
+    /// @param row the cells to put in the row
+    /// @return a copy of the previous row
+    /// @throws IllegalArgumentException if `row` isn't exactly as wide as the board
+    @Override
+    public List<Cell> set(int y, List<Cell> row) {
+        if (row.size() != size.width())
+            throw new IllegalArgumentException("Row doesn't match board width");
+        var old = List.copyOf(get(y));
+        for (int x = 0; x < size.width(); x++)
+            set(x, y, row.get(x));
+        return old;
+    }
+    
+    /// Gets the amount of rows of the board
+    ///
+    /// @return the height of the board
+    @Override
+    public int size() {
+        return size.height();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof Board board)
+            return size.width() == board.size.width()
+                    && size.height() == board.size.height()
+                    && contentEquals(board);
+        return super.equals(o);
+    }
+    
+    private boolean contentEquals(Board board) {
+        for (int i = 0; i < cells.length(); i++)
+            if (cells.get(i) != board.cells.get(i))
+                return false;
+        return true;
     }
     
-    @SuppressWarnings({ "unchecked", "MethodDoesntCallSuperMethod" })
+    @Override
+    public int hashCode() {
+        // same as the List hash of the rows, just without making any rows
+        var hash = 1;
+        for (int y = 0; y < size.height(); y++) {
+            var row_hash = 1;
+            for (int x = 0, i = y * size.width(); x < size.width(); x++, i++)
+                row_hash = 31 * row_hash + cellHash(cells.get(i));
+            hash = 31 * hash + row_hash;
+        }
+        return hash;
+    }
+    
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
     @Override
     public Board clone() {
-        return this.stream()
-                .map((e) -> ((ArrayList<Cell>) e.clone()))
-                .collect(Collectors.toCollection(() -> new Board(size, ((Void) null))));
+        return new Board(size, cells.fork(), counts.clone(), generated, seed);
+    }
+    
+    private final class Row extends AbstractList<Cell> implements RandomAccess {
+        
+        private final int y;
+        
+        private Row(int y) {
+            this.y = y;
+        }
+        
+        @Override
+        public Cell get(int x) {
+            return Board.this.get(x, y);
+        }
+        
+        @Override
+        public Cell set(int x, Cell cell) {
+            var old = Board.this.get(x, y);
+            Board.this.set(x, y, cell);
+            return old;
+        }
+        
+        @Override
+        public int size() {
+            return size.width();
+        }
     }
 }
@@ -0,0 +1,276 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.event.SolveEvent;
+import canaryprism.minsweeper.solver.Move;
+import canaryprism.minsweeper.solver.Solver;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+import static canaryprism.minsweeper.CellCodes.*;
+
+/// Builds a board that a [Solver] can win while it's playing it
+///
+/// Whether a cell is a mine isn't decided until the solver reveals a cell next to it and needs its number,
+/// and each one is drawn with the chance of it being a mine being how many mines are left over how many cells are left,
+/// so the board always ends up with exactly [BoardSize#mines()] mines.
+/// If the solver can't find a move after one of its moves, the last move that decided anything is made again
+/// with the cells it decided left without mines wherever there's room, going further back if that doesn't help either,
+/// so whenever it would have to guess the board is changed to one where it doesn't.
+///
+/// Nothing the solver has seen ever changes, so by the time it wins it has won the finished board
+/// from the first reveal without guessing, and the board doesn't need checking again
+///
+/// The boards lean towards being easier than a uniformly random solvable board would be
+final class BoardConstruction {
+    
+    private static final byte UNDECIDED = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINED = 2;
+    
+    /// how many moves back the cells can be drawn again from
+    private static final int HISTORY = 16;
+    /// how many times moves can be made again, on top of one for every 8 cells
+    private static final int REDRAWS = 16;
+    
+    private final BoardSize size;
+    private final SplittableRandom random;
+    
+    private byte[] decided;
+    /// what the solver sees, cells that aren't revealed are [UNKNOWN][CellCodes#UNKNOWN]
+    private Board shown;
+    private int undecided, mines_left, revealed, flagged;
+    
+    private final IndexList flood = new IndexList();
+    /// whether cells are being decided again, which makes them not mines whenever there's room
+    private boolean clearing;
+    
+    private BoardConstruction(BoardSize size, long seed) {
+        this.size = size;
+        this.random = new SplittableRandom(seed);
+        this.decided = new byte[Board.length(size)];
+        this.shown = new Board(size, new Cell(CellType.UNKNOWN, CellState.UNKNOWN));
+        this.undecided = decided.length;
+        this.mines_left = size.mines();
+    }
+    
+    /// Builds a board from a seed that `solver` can win after revealing `(x, y)`
+    ///
+    /// The same arguments always make the same board as long as the solver always makes the same moves
+    ///
+    /// @return the game, or `null` if the solver got stuck even after redrawing or lost
+    static GameState solvable(BoardSize sizes, Solver solver, int x, int y, long seed) {
+        return new BoardConstruction(sizes, seed).build(solver, x, y);
+    }
+    
+    /// everything about the board before a move, so the move can be made again with different cells
+    private record Frame(Move move, byte[] decided, Board shown, int undecided, int mines_left, int revealed, int flagged) {}
+    
+    private Frame frame(Move move) {
+        return new Frame(move, decided.clone(), shown.clone(), undecided, mines_left, revealed, flagged);
+    }
+    
+    private void restore(Frame frame) {
+        decided = frame.decided.clone();
+        shown = frame.shown.clone();
+        undecided = frame.undecided;
+        mines_left = frame.mines_left;
+        revealed = frame.revealed;
+        flagged = frame.flagged;
+    }
+    
+    private GameState build(Solver solver, int x, int y) {
+        keepClear(x, y, solver.getSafeRadius());
+        
+        var history = new ArrayDeque<Frame>();
+        var redraws = REDRAWS + decided.length / 8;
+        var move = new Move(x, y, Move.Action.LEFT);
+        // a solver that keeps making moves that don't do anything would never finish
+        for (long moves = 0; moves < 4L * decided.length; moves++) {
+            var frame = frame(move);
+            if (!make(move))
+                return null;
+            // only moves that decided something can be made differently
+            if (undecided != frame.undecided) {
+                history.push(frame);
+                if (history.size() > HISTORY)
+                    history.removeLast();
+            }
+            if (revealed == decided.length - size.mines())
+                return finish();
+            
+            var next = SolveEvent.solve(solver, state());
+            while (next == null) {
+                // the solver would have to guess, so go back to the last move that decided anything and make it again
+                if (history.isEmpty() || redraws-- == 0)
+                    return null;
+                frame = history.peek();
+                restore(frame);
+                clearing = true;
+                var made = make(frame.move);
+                clearing = false;
+                if (!made)
+                    return null;
+                if (revealed == decided.length - size.mines())
+                    return finish();
+                next = SolveEvent.solve(solver, state());
+                if (next == null)
+                    history.pop();
+            }
+            move = next;
+        }
+        return null;
+    }
+    
+    private GameState state() {
+        return new GameState(GameStatus.PLAYING, shown, size.mines() - flagged);
+    }
+    
+    /// decides the cells within `radius` of `(x, y)` aren't mines if there's room for the mines elsewhere
+    private void keepClear(int x, int y, int radius) {
+        if (radius < 0)
+            return;
+        var left = Math.max(0, x - radius);
+        var right = Math.min(size.width() - 1, x + radius);
+        var top = Math.max(0, y - radius);
+        var bottom = Math.min(size.height() - 1, y + radius);
+        if (mines_left > undecided - (right - left + 1) * (bottom - top + 1))
+            return;
+        for (int y2 = top; y2 <= bottom; y2++)
+            for (int x2 = left; x2 <= right; x2++) {
+                decided[y2 * size.width() + x2] = SAFE;
+                undecided--;
+            }
+    }
+    
+    /// @return false if the move revealed a mine
+    private boolean make(Move move) {
+        var width = size.width();
+        for (var click : move.clicks()) {
+            var x = click.point().x();
+            var y = click.point().y();
+            if (!(x >= 0 && x < width && y >= 0 && y < size.height()))
+                continue;
+            var index = y * width + x;
+            var code = shown.getCode(index);
+            switch (click.action()) {
+                case LEFT -> {
+                    if (isRevealed(code)) {
+                        if (flaggedAround(x, y) == number(code)) {
+                            for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+                                for (int x2 = Math.max(0, x - 1); x2 <= Math.min(width - 1, x + 1); x2++)
+                                    if (isUnknown(shown.getCode(y2 * width + x2)) && !reveal(x2, y2))
+                                        return false;
+                        }
+                    } else if (isUnknown(code) && !reveal(x, y)) {
+                        return false;
+                    }
+                }
+                case RIGHT -> {
+                    if (isUnknown(code)) {
+                        // a solver only flags what it knows is a mine
+                        decide(index, MINED);
+                        shown.setCode(index, code(CellCodes.UNKNOWN, CellState.FLAGGED));
+                        flagged++;
+                    } else if (isFlagged(code)) {
+                        shown.setCode(index, code(CellCodes.UNKNOWN, CellState.UNKNOWN));
+                        flagged--;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    private int flaggedAround(int x, int y) {
+        var flags = 0;
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                if (isFlagged(shown.getCode(y2 * size.width() + x2)))
+                    flags++;
+        return flags;
+    }
+    
+    /// reveals a cell, deciding everything around it, and floods out from it if it's a 0
+    ///
+    /// @return false if the cell is a mine
+    private boolean reveal(int x, int y) {
+        var width = size.width();
+        var height = size.height();
+        // a solver only reveals what it knows isn't a mine
+        if (!decide(y * width + x, SAFE))
+            return false;
+        
+        flood.clear();
+        flood.add(y * width + x);
+        while (flood.size() > 0) {
+            var index = flood.removeLast();
+            if (!isUnknown(shown.getCode(index)))
+                continue;
+            var cx = index % width;
+            var cy = index / width;
+            var number = 0;
+            for (int y2 = Math.max(0, cy - 1); y2 <= Math.min(height - 1, cy + 1); y2++)
+                for (int x2 = Math.max(0, cx - 1); x2 <= Math.min(width - 1, cx + 1); x2++) {
+                    var neighbour = y2 * width + x2;
+                    if (decided[neighbour] == UNDECIDED)
+                        decide(neighbour, (clearing ? mines_left == undecided : random.nextInt(undecided) < mines_left)
+                                ? MINED : SAFE);
+                    if (decided[neighbour] == MINED)
+                        number++;
+                }
+            shown.setCode(index, code(number, CellState.REVEALED));
+            revealed++;
+            
+            if (number == 0)
+                for (int y2 = Math.max(0, cy - 1); y2 <= Math.min(height - 1, cy + 1); y2++)
+                    for (int x2 = Math.max(0, cx - 1); x2 <= Math.min(width - 1, cx + 1); x2++)
+                        if (isUnknown(shown.getCode(y2 * width + x2)))
+                            flood.add(y2 * width + x2);
+        }
+        return true;
+    }
+    
+    /// decides a cell if it isn't already
+    ///
+    /// @return whether the cell is now what it was decided as
+    private boolean decide(int index, byte as) {
+        if (decided[index] == UNDECIDED) {
+            decided[index] = as;
+            undecided--;
+            if (as == MINED)
+                mines_left--;
+        }
+        return decided[index] == as;
+    }
+    
+    /// the cells nobody ever needed to know about are the rest of the mines
+    private GameState finish() {
+        if (mines_left != undecided)
+            return null;
+        var bits = new BitBoard(size);
+        var mines = bits.mines();
+        var width = size.width();
+        for (int i = 0; i < decided.length; i++)
+            if (decided[i] != SAFE)
+                mines[bits.word(i % width, i / width)] |= 1L << (i % width);
+        bits.generateNumbers();
+        return new GameState(GameStatus.PLAYING, bits.toBoard(), size.mines());
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import static canaryprism.minsweeper.CellCodes.*;
+
+/// A file full of boards of the same [BoardSize], stored as compactly as they can be
+///
+/// The file is a [#HEADER] byte header with a magic number, a version, the [BoardSize] and whether states are stored,
+/// followed by the boards one after another, each the same amount of bytes.
+/// A board is its [mine plane][BitBoard#mines()] laid out the same as in a [BitBoard],
+/// and if states are stored its [revealed][BitBoard#revealed()] and [flagged][BitBoard#flagged()] planes after that.
+/// The numbers aren't stored since they're worked out from the mines anyway,
+/// and how many boards there are isn't either, it's just however many fit in the file
+///
+/// Boards are written one at a time by a [Writer], so there can be as many as fit on the disk.
+/// Reading [opens][#open(Path)] the file memory mapped, and each board can then be either
+/// [viewed][#view(int)] straight from the file or [copied][#board(int)] onto the heap,
+/// neither of which needs to read any boards but that one
+public final class BoardCorpus {
+    
+    /// "MSWC"
+    private static final int MAGIC = 0x4d535743;
+    private static final int VERSION = 1;
+    
+    static final int HEADER = 64;
+    
+    /// the most bytes of boards mapped in one buffer, boards are never split between two of them
+    private static final int CHUNK_SIZE = 1 << 30;
+    
+    private final BoardSize size;
+    private final boolean states;
+    private final int plane_words;
+    private final int board_bytes;
+    
+    private final ByteBuffer[] chunks;
+    private final int boards_per_chunk;
+    private final int boards;
+    
+    private BoardCorpus(BoardSize size, boolean states, ByteBuffer[] chunks, int boards_per_chunk, int boards) {
+        this.size = size;
+        this.states = states;
+        this.plane_words = planeWords(size);
+        this.board_bytes = boardBytes(size, states);
+        this.chunks = chunks;
+        this.boards_per_chunk = boards_per_chunk;
+        this.boards = boards;
+    }
+    
+    /// Creates a file to write boards to
+    ///
+    /// The file is created, or overwritten if it already exists
+    ///
+    /// @param file the file
+    /// @param size the size of every board that will be written
+    /// @param states whether to store the [CellState]s of the boards, if not every cell must be [UNKNOWN][CellState#UNKNOWN]
+    /// @return the writer
+    /// @throws IOException if the file couldn't be created
+    /// @throws IllegalArgumentException if boards of that size would be too big
+    public static Writer writer(Path file, BoardSize size, boolean states) throws IOException {
+        return new Writer(file, size, states);
+    }
+    
+    /// Opens a file of boards written by a [Writer]
+    ///
+    /// If the file ends partway through a board, like if the writer was never closed, that board is left out
+    ///
+    /// @param file the file
+    /// @return the corpus
+    /// @throws IOException if the file couldn't be read or isn't a board corpus
+    public static BoardCorpus open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("Not a board corpus");
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a board corpus");
+            if (header.getInt() != VERSION)
+                throw new IOException("Unsupported board corpus version");
+            
+            BoardSize size;
+            int board_bytes;
+            boolean states;
+            try {
+                size = new BoardSize(header.getInt(), header.getInt(), header.getInt());
+                states = header.getInt() != 0;
+                board_bytes = boardBytes(size, states);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid board size", e);
+            }
+            
+            var boards = (channel.size() - HEADER) / board_bytes;
+            if (boards > Integer.MAX_VALUE)
+                throw new IOException("Too many boards");
+            
+            var boards_per_chunk = Math.max(1, CHUNK_SIZE / board_bytes);
+            var chunks = new ByteBuffer[(int) ((boards + boards_per_chunk - 1) / boards_per_chunk)];
+            for (int i = 0; i < chunks.length; i++) {
+                var start = (long) i * boards_per_chunk;
+                var length = Math.min(boards_per_chunk, boards - start) * board_bytes;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + start * board_bytes, length)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new BoardCorpus(size, states, chunks, boards_per_chunk, (int) boards);
+        }
+    }
+    
+    private static int planeWords(BoardSize size) {
+        return ((size.width() + 63) >>> 6) * size.height();
+    }
+    
+    private static int boardBytes(BoardSize size, boolean states) {
+        var bytes = (long) planeWords(size) * Long.BYTES * (states ? 3 : 1);
+        if (bytes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Board too big");
+        return (int) bytes;
+    }
+    
+    /// Gets the [BoardSize] of every board in the corpus
+    ///
+    /// @return the size of the boards
+    public BoardSize getSize() {
+        return size;
+    }
+    
+    /// Checks whether the [CellState]s of the boards are stored, if not every cell is [UNKNOWN][CellState#UNKNOWN]
+    ///
+    /// @return whether states are stored
+    public boolean hasStates() {
+        return states;
+    }
+    
+    /// Gets how many boards there are
+    ///
+    /// @return the amount of boards
+    public int size() {
+        return boards;
+    }
+    
+    /// Copies a board onto the heap
+    ///
+    /// This is a few word operations per 64 cells, nothing is parsed one cell at a time
+    ///
+    /// @param index which board
+    /// @return the board
+    /// @throws IndexOutOfBoundsException if there's no board at that index
+    public Board board(int index) {
+        return bits(index).toBoard();
+    }
+    
+    /// Views a board straight from the file
+    ///
+    /// Reading a cell reads the file, and changing the board only copies the part of it that changed onto the heap.
+    /// Only the board's counts of each kind of cell are worked out up front
+    ///
+    /// @param index which board
+    /// @return the board
+    /// @throws IndexOutOfBoundsException if there's no board at that index
+    public Board view(int index) {
+        var counts = bits(index).counts();
+        var length = Board.length(size);
+        return new Board(size, PersistentCells.backed(length, new View(index), false), counts);
+    }
+    
+    /// Gets a board as a [GameState]
+    ///
+    /// The status is [LOST][GameStatus#LOST] if a mine is revealed, [WON][GameStatus#WON] if every safe cell is,
+    /// and [PLAYING][GameStatus#PLAYING] otherwise
+    ///
+    /// @param index which board
+    /// @return the state
+    /// @throws IndexOutOfBoundsException if there's no board at that index
+    public GameState state(int index) {
+        var board = board(index);
+        GameStatus status;
+        if (board.getRevealedMineCount() > 0)
+            status = GameStatus.LOST;
+        else if (board.hasWon())
+            status = GameStatus.WON;
+        else
+            status = GameStatus.PLAYING;
+        return new GameState(status, board, size.mines() - board.count(CellState.FLAGGED));
+    }
+    
+    /// Makes a game to play out of a board
+    ///
+    /// @param index which board
+    /// @return a [SetMinsweeperGame] with the board's [#state(int)]
+    /// @throws IndexOutOfBoundsException if there's no board at that index
+    public SetMinsweeperGame game(int index) {
+        return new SetMinsweeperGame(state(index));
+    }
+    
+    private BitBoard bits(int index) {
+        var bits = new BitBoard(size);
+        var buffer = chunk(index);
+        var offset = offset(index);
+        buffer.slice(offset, plane_words * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(bits.mines());
+        if (states) {
+            offset += plane_words * Long.BYTES;
+            buffer.slice(offset, plane_words * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(bits.revealed());
+            offset += plane_words * Long.BYTES;
+            buffer.slice(offset, plane_words * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(bits.flagged());
+        }
+        bits.generateNumbers();
+        return bits;
+    }
+    
+    private ByteBuffer chunk(int index) {
+        Objects.checkIndex(index, boards);
+        return chunks[index / boards_per_chunk];
+    }
+    
+    private int offset(int index) {
+        return (index % boards_per_chunk) * board_bytes;
+    }
+    
+    /// The cells of one board, read from the mapped file
+    final class View extends PersistentCells.Base {
+        
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int words_per_row;
+        
+        private View(int index) {
+            this.buffer = chunk(index);
+            this.offset = offset(index);
+            this.words_per_row = (size.width() + 63) >>> 6;
+        }
+        
+        private boolean bit(int plane, int x, int y) {
+            var word = buffer.getLong(offset + (plane * plane_words + y * words_per_row + (x >>> 6)) * Long.BYTES);
+            return (word >>> x & 1) != 0;
+        }
+        
+        @Override
+        byte get(int index) {
+            var x = index % size.width();
+            var y = index / size.width();
+            
+            var state = CellState.UNKNOWN;
+            if (states)
+                if (bit(1, x, y))
+                    state = CellState.REVEALED;
+                else if (bit(2, x, y))
+                    state = CellState.FLAGGED;
+            
+            if (bit(0, x, y))
+                return code(MINE, state);
+            
+            var number = 0;
+            for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+                for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                    if (bit(0, x2, y2))
+                        number++;
+            return code(number, state);
+        }
+        
+        @Override
+        void put(int index, byte code) {
+            throw new UnsupportedOperationException("Board corpora are read only");
+        }
+        
+        @Override
+        void get(int index, byte[] destination, int length) {
+            for (int i = 0; i < length; i++)
+                destination[i] = get(index + i);
+        }
+    }
+    
+    /// Writes boards to a [BoardCorpus] file one at a time
+    ///
+    /// Boards are buffered and written in batches, so [#close()] it to make sure they're all written
+    public static final class Writer implements Closeable {
+        
+        /// how many bytes of boards are buffered before they're written
+        private static final int BUFFER_SIZE = 1 << 20;
+        
+        private final FileChannel channel;
+        private final BoardSize size;
+        private final boolean states;
+        private final int board_bytes;
+        private final ByteBuffer buffer;
+        
+        private Writer(Path file, BoardSize size, boolean states) throws IOException {
+            this.size = size;
+            this.states = states;
+            this.board_bytes = boardBytes(size, states);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, board_bytes)).order(ByteOrder.LITTLE_ENDIAN);
+            
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(size.width()).putInt(size.height()).putInt(size.mines())
+                    .putInt(states ? 1 : 0)
+                    .position(HEADER);
+        }
+        
+        /// Writes a board
+        ///
+        /// Only the mines and, if the corpus stores them, the states of the cells are written.
+        /// The numbers are worked out again from the mines when the board is read
+        ///
+        /// @param board the board to write
+        /// @throws IOException if the file couldn't be written to
+        /// @throws IllegalArgumentException if the board isn't the corpus' size, has [unknown][CellType.Unknown] cells,
+        ///                                  or isn't all [UNKNOWN][CellState#UNKNOWN] when states aren't stored
+        public void write(Board board) throws IOException {
+            if (!board.getSize().equals(size))
+                throw new IllegalArgumentException("Board isn't the size of the corpus");
+            for (var state : CellState.values())
+                if (board.count(new Cell(CellType.UNKNOWN, state)) > 0)
+                    throw new IllegalArgumentException("Board has unknown cells");
+            if (!states && board.count(CellState.UNKNOWN) != board.getSize().cells())
+                throw new IllegalArgumentException("Board has states but the corpus doesn't store them");
+            
+            var bits = BitBoard.of(board);
+            if (buffer.remaining() < board_bytes)
+                flush();
+            buffer.asLongBuffer().put(bits.mines());
+            if (states) {
+                buffer.position(buffer.position() + bits.mines().length * Long.BYTES);
+                buffer.asLongBuffer().put(bits.revealed());
+                buffer.position(buffer.position() + bits.revealed().length * Long.BYTES);
+                buffer.asLongBuffer().put(bits.flagged());
+                buffer.position(buffer.position() + bits.flagged().length * Long.BYTES);
+            } else {
+                buffer.position(buffer.position() + bits.mines().length * Long.BYTES);
+            }
+        }
+        
+        /// Writes the board of a [GameState]
+        ///
+        /// @param state the state whose board to write
+        /// @throws IOException if the file couldn't be written to
+        /// @throws IllegalArgumentException for the same reasons as [#write(Board)]
+        /// @see #write(Board)
+        public void write(GameState state) throws IOException {
+            write(state.board());
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+        
+        /// Writes any buffered boards and closes the file
+        ///
+        /// @throws IOException if the file couldn't be written to
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static canaryprism.minsweeper.CellCodes.*;
+import static canaryprism.minsweeper.PersistentCells.Mapped.CHUNK_SIZE;
+import static canaryprism.minsweeper.PersistentCells.LEAF_SIZE;
+
+/// Reading and writing [Board]s as memory mapped files
+///
+/// A board file is a [#HEADER] byte header, the magic number, a version, and the [BoardSize],
+/// followed by every cell's code in row-major order, one byte each
+final class BoardFile {
+    
+    private BoardFile() {}
+    
+    /// "MSWB"
+    private static final int MAGIC = 0x4d535742;
+    private static final int VERSION = 1;
+    
+    static final int HEADER = 64;
+    
+    static Board create(Path file, BoardSize size) throws IOException {
+        var length = Board.length(size);
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var header = header(size);
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+            // code 0 is an empty unknown cell, so growing the file fills the board without writing anything
+            channel.write(ByteBuffer.allocate(1), HEADER + length - 1L);
+            
+            var counts = new int[CODES];
+            counts[code(0, CellState.UNKNOWN)] = length;
+            return new Board(size, PersistentCells.backed(length, map(channel, FileChannel.MapMode.READ_WRITE, length), true), counts);
+        }
+    }
+    
+    static Board open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("Not a board file");
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a board file");
+            if (header.getInt() != VERSION)
+                throw new IOException("Unsupported board file version");
+            
+            BoardSize size;
+            int length;
+            try {
+                size = new BoardSize(header.getInt(), header.getInt(), header.getInt());
+                length = Board.length(size);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid board size", e);
+            }
+            if (channel.size() < HEADER + (long) length)
+                throw new IOException("Board file is too short");
+            
+            var cells = PersistentCells.backed(length, map(channel, FileChannel.MapMode.READ_ONLY, length), false);
+            
+            // the counts aren't stored so they have to be counted, this is still only a leaf on the heap at a time
+            var counts = new int[CODES];
+            var leaf = new byte[LEAF_SIZE];
+            for (int start = 0; start < length; start += LEAF_SIZE) {
+                cells.copyLeaf(start, leaf);
+                for (int i = 0, end = Math.min(LEAF_SIZE, length - start); i < end; i++) {
+                    var code = leaf[i];
+                    if (code < 0 || code >= CODES || (code & TYPE_MASK) >= TYPES)
+                        throw new IOException("Invalid cell at " + (start + i));
+                    counts[code]++;
+                }
+            }
+            return new Board(size, cells, counts);
+        }
+    }
+    
+    static void save(Board board, Path file) throws IOException {
+        var cells = board.cells();
+        var length = cells.length();
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            var header = header(board.getSize());
+            while (header.hasRemaining())
+                channel.write(header);
+            
+            var leaf = new byte[LEAF_SIZE];
+            var buffer = ByteBuffer.wrap(leaf);
+            for (int start = 0; start < length; start += LEAF_SIZE) {
+                cells.copyLeaf(start, leaf);
+                buffer.clear().limit(Math.min(LEAF_SIZE, length - start));
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+        }
+    }
+    
+    private static ByteBuffer header(BoardSize size) {
+        var header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(size.width()).putInt(size.height()).putInt(size.mines());
+        return header.clear();
+    }
+    
+    private static PersistentCells.Mapped map(FileChannel channel, FileChannel.MapMode mode, int length) throws IOException {
+        var chunks = new ByteBuffer[(int) ((length + (long) CHUNK_SIZE - 1) / CHUNK_SIZE)];
+        for (int i = 0; i < chunks.length; i++) {
+            var start = (long) i * CHUNK_SIZE;
+            chunks[i] = channel.map(mode, HEADER + start, Math.min(CHUNK_SIZE, length - start));
+        }
+        return new PersistentCells.Mapped(chunks);
+    }
+}
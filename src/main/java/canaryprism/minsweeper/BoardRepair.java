@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Solver;
+
+import java.util.SplittableRandom;
+
+/// Makes random boards solvable by moving mines away from where a [Solver] gets stuck
+///
+/// The solver plays the board until it resigns, then one of the mines next to what it has revealed
+/// is moved somewhere that isn't next to anything revealed, and the numbers around both cells are fixed up.
+/// Everything the solver revealed is still safe and everything it flagged is still a mine,
+/// so it carries on from where it was instead of starting over, with less to worry about where it got stuck.
+/// Once it wins the board is played once more from the start to make sure it really can be won from nothing,
+/// and if it can't that just gets stuck somewhere else to repair
+///
+/// The boards are solvable but not uniformly random among solvable boards,
+/// they lean towards having fewer mines near the first reveal
+final class BoardRepair {
+    
+    private BoardRepair() {}
+    
+    /// Generates a board from a seed and repairs it until `solver` can win it
+    ///
+    /// The same arguments always make the same board
+    ///
+    /// @return the game, or `null` if the board got stuck somewhere with nowhere to move mines to
+    static GameState solvable(BoardSize sizes, Solver solver, int x, int y, long seed) {
+        var random = new SplittableRandom(seed);
+        // the seed wouldn't make the board again once it's been repaired
+        var fresh = Board.random(sizes, random.nextLong(), x, y, solver.getSafeRadius()).withoutSeed();
+        
+        var game = new SetMinsweeperGame(new GameState(GameStatus.PLAYING, fresh.clone(), sizes.mines()));
+        game.reveal(x, y);
+        var from_start = true;
+        // every repair takes a mine away from what's revealed, that can't go on for longer than there are mines
+        for (int repairs = 0; repairs <= sizes.mines(); ) {
+            var result = solver.solve(game);
+            if (result == Solver.Result.WON) {
+                if (from_start)
+                    return new GameState(GameStatus.PLAYING, fresh, sizes.mines());
+                game = new SetMinsweeperGame(new GameState(GameStatus.PLAYING, fresh.clone(), sizes.mines()));
+                game.reveal(x, y);
+                from_start = true;
+                continue;
+            }
+            if (result == Solver.Result.LOST)
+                return null;
+            
+            var stuck = game.gamestate.board().clone();
+            if (!repair(stuck, fresh, random))
+                return null;
+            repairs++;
+            game = new SetMinsweeperGame(new GameState(GameStatus.PLAYING, stuck, game.gamestate.remainingMines()));
+            from_start = false;
+        }
+        return null;
+    }
+    
+    /// Moves a random mine next to a revealed cell to a random cell that isn't next to any,
+    /// on both the board being played and the one that hasn't been
+    ///
+    /// @return whether there was a mine to move and somewhere to move it to
+    private static boolean repair(Board stuck, Board fresh, SplittableRandom random) {
+        var size = stuck.getSize();
+        var width = size.width();
+        var height = size.height();
+        
+        // reservoir sampling, so both are picked uniformly in one pass
+        int from = -1, to = -1, froms = 0, tos = 0;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++) {
+                if (stuck.getState(x, y) != CellState.UNKNOWN)
+                    continue;
+                var frontier = nextToRevealed(stuck, x, y);
+                if (stuck.isMine(x, y)) {
+                    if (frontier && random.nextInt(++froms) == 0)
+                        from = y * width + x;
+                } else if (!frontier && random.nextInt(++tos) == 0) {
+                    to = y * width + x;
+                }
+            }
+        if (from < 0 || to < 0)
+            return false;
+        
+        for (var board : new Board[] { stuck, fresh })
+            moveMine(board, from % width, from / width, to % width, to / width);
+        return true;
+    }
+    
+    private static boolean nextToRevealed(Board board, int x, int y) {
+        var size = board.getSize();
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                if (board.getState(x2, y2) == CellState.REVEALED)
+                    return true;
+        return false;
+    }
+    
+    private static void moveMine(Board board, int from_x, int from_y, int to_x, int to_y) {
+        set(board, from_x, from_y, new CellType.Safe(0));
+        set(board, to_x, to_y, CellType.MINE);
+        adjust(board, from_x, from_y, -1);
+        adjust(board, to_x, to_y, 1);
+        // the moved mine might have been next to where it was moved to
+        set(board, from_x, from_y, new CellType.Safe(mines(board, from_x, from_y)));
+    }
+    
+    private static void adjust(Board board, int x, int y, int by) {
+        var size = board.getSize();
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                if ((x2 != x || y2 != y) && !board.isMine(x2, y2))
+                    set(board, x2, y2, new CellType.Safe(board.getNumber(x2, y2) + by));
+    }
+    
+    private static int mines(Board board, int x, int y) {
+        var size = board.getSize();
+        var mines = 0;
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                if (board.isMine(x2, y2))
+                    mines++;
+        return mines;
+    }
+    
+    private static void set(Board board, int x, int y, CellType type) {
+        board.set(x, y, new Cell(type, board.getState(x, y)));
+    }
+}
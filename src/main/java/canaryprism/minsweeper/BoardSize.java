@@ -25,9 +25,18 @@ public record BoardSize(int width, int height, int mines) {
     public BoardSize {
         if (width <= 0 || height <= 0)
             throw new IllegalArgumentException("Invalid Size");
-        if (mines >= width * height)
+        if (mines >= (long) width * height)
             throw new IllegalArgumentException("Too Many Mines");
         if (mines <= 0)
             throw new IllegalArgumentException("Too Few Mines");
     }
+    
+    /// Gets the amount of cells on a board of this size
+    ///
+    /// this is a `long` since the width times the height can be more than an `int` can hold
+    ///
+    /// @return the width times the height
+    public long cells() {
+        return (long) width * height;
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+/// Packs a [Cell] into a single byte
+///
+/// the low 4 bits are the [CellType], `0` to `8` being [CellType.Safe] with that number,
+/// then [#MINE] and [#UNKNOWN], and the 2 bits above that are the [CellState]'s ordinal
+///
+/// Every code has a shared [Cell] so unpacking never allocates
+final class CellCodes {
+    
+    private CellCodes() {}
+    
+    static final int TYPE_MASK = 0b1111;
+    static final int STATE_SHIFT = 4;
+    
+    static final int MINE = 9;
+    static final int UNKNOWN = 10;
+    
+    static final int TYPES = 11;
+    static final int CODES = CellState.values().length << STATE_SHIFT;
+    
+    private static final CellState[] STATES = CellState.values();
+    private static final CellType[] CELL_TYPES = new CellType[TYPES];
+    private static final Cell[] CELLS = new Cell[CODES];
+    private static final int[] HASHES = new int[CODES];
+    
+    /// what each code looks like to a player that isn't allowed to see the cell's type, indexed by code
+    static final byte[] HIDDEN = new byte[CODES];
+    
+    static {
+        for (int i = 0; i <= 8; i++)
+            CELL_TYPES[i] = (i == 0) ? CellType.Safe.EMPTY : new CellType.Safe(i);
+        CELL_TYPES[MINE] = CellType.MINE;
+        CELL_TYPES[UNKNOWN] = CellType.UNKNOWN;
+        
+        for (var state : STATES)
+            for (int type = 0; type < TYPES; type++) {
+                var code = code(type, state);
+                CELLS[code] = new Cell(CELL_TYPES[type], state);
+                HASHES[code] = CELLS[code].hashCode();
+                HIDDEN[code] = hide(code);
+            }
+    }
+    
+    static byte code(int type, CellState state) {
+        return ((byte) (type | state.ordinal() << STATE_SHIFT));
+    }
+    
+    static byte encode(Cell cell) {
+        var type = switch (cell.type()) {
+            case CellType.Safe(var number) -> {
+                if (number < 0 || number > 8)
+                    throw new IllegalArgumentException("Invalid number " + number);
+                yield number;
+            }
+            case CellType.Mine ignored -> MINE;
+            case CellType.Unknown ignored -> UNKNOWN;
+        };
+        return code(type, cell.state());
+    }
+    
+    static Cell cell(byte code) {
+        return CELLS[code];
+    }
+    
+    static int cellHash(byte code) {
+        return HASHES[code];
+    }
+    
+    static int typeOf(byte code) {
+        return code & TYPE_MASK;
+    }
+    
+    static CellType type(byte code) {
+        return CELL_TYPES[code & TYPE_MASK];
+    }
+    
+    static CellState state(byte code) {
+        return STATES[code >>> STATE_SHIFT];
+    }
+    
+    /// @return the number of the code if it is safe, or `-1` otherwise
+    static int number(byte code) {
+        var type = code & TYPE_MASK;
+        return (type <= 8) ? type : -1;
+    }
+    
+    static boolean isSafeCode(byte code) {
+        return (code & TYPE_MASK) <= 8;
+    }
+    
+    static boolean isMineCode(byte code) {
+        return (code & TYPE_MASK) == MINE;
+    }
+    
+    static boolean isRevealed(byte code) {
+        return code >>> STATE_SHIFT == CellState.REVEALED.ordinal();
+    }
+    
+    static boolean isUnknown(byte code) {
+        return code >>> STATE_SHIFT == CellState.UNKNOWN.ordinal();
+    }
+    
+    static boolean isFlagged(byte code) {
+        return code >>> STATE_SHIFT == CellState.FLAGGED.ordinal();
+    }
+    
+    static byte withState(byte code, CellState state) {
+        return code(code & TYPE_MASK, state);
+    }
+    
+    static byte hide(byte code) {
+        return isRevealed(code) ? code : code(UNKNOWN, state(code));
+    }
+}
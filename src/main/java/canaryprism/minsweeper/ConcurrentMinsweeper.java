@@ -0,0 +1,217 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/// Minsweeper game that any amount of threads can play at once
+///
+/// The current [GameState] is kept in an [AtomicReference].
+/// A move is made on the state it read, which is never changed since [Board]s are copied to be moved on,
+/// and then swapped in with a compare-and-set, starting over from the new state if another move got there first.
+/// So every move happens all at once, exactly as if the moves had been made one after another in some order,
+/// and nothing ever waits on a lock
+///
+/// [#getGameState()] just reads the reference, the hidden state is made before a move is swapped in
+///
+/// Like [AbstractRandomMinsweeper], [#start()] generates a completely random board
+/// and does nothing special for the first move.
+/// The win and lose [Runnable]s are run once, by whichever thread made the move that won or lost
+public class ConcurrentMinsweeper implements Minsweeper {
+    
+    private final BoardSize sizes;
+    private final Runnable on_win;
+    private final Runnable on_lose;
+    
+    /// a true state and what players are allowed to see of it
+    ///
+    /// players only ever get copies of [#hidden], since the next hidden state is made from it
+    private record Snapshot(GameState state, GameState hidden) {
+        Snapshot(GameState state) {
+            this(state, (state.status() == GameStatus.PLAYING) ? state.hideMines() : state);
+        }
+        
+        GameState view() {
+            return hidden.clone();
+        }
+    }
+    
+    private final AtomicReference<Snapshot> snapshot;
+    
+    /// each thread makes its moves on its own engine, since they keep buffers around between moves
+    private final ThreadLocal<Engine> engines;
+    
+    /// Constructs a ConcurrentMinsweeper with the provided sizes
+    ///
+    /// has win/lose [Runnable]s that are invoked when a game is won or lost respectively
+    ///
+    /// @param sizes the size of the board
+    /// @param on_win Runnable to be invoked on win
+    /// @param on_lose Runnable to be invoked on lose
+    public ConcurrentMinsweeper(BoardSize sizes, Runnable on_win, Runnable on_lose) {
+        this.sizes = sizes;
+        this.on_win = on_win;
+        this.on_lose = on_lose;
+        this.snapshot = new AtomicReference<>(new Snapshot(new GameState(GameStatus.NEVER, new Board(sizes), 0)));
+        this.engines = ThreadLocal.withInitial(() -> new Engine(sizes));
+    }
+    
+    /// Constructs a ConcurrentMinsweeper with the provided sizes
+    ///
+    /// @param sizes the size of the board
+    public ConcurrentMinsweeper(BoardSize sizes) {
+        this(sizes, () -> {}, () -> {});
+    }
+    
+    /// Constructs a ConcurrentMinsweeper that starts from a given [GameState]
+    ///
+    /// @param state the state of the game
+    /// @param on_win Runnable to be invoked on win
+    /// @param on_lose Runnable to be invoked on lose
+    public ConcurrentMinsweeper(GameState state, Runnable on_win, Runnable on_lose) {
+        this(state.board().getSize(), on_win, on_lose);
+        snapshot.set(new Snapshot(state));
+    }
+    
+    /// Constructs a ConcurrentMinsweeper that starts from a given [GameState]
+    ///
+    /// @param state the state of the game
+    public ConcurrentMinsweeper(GameState state) {
+        this(state, () -> {}, () -> {});
+    }
+    
+    @Override
+    public GameState start() {
+        var started = new Snapshot(AbstractRandomMinsweeper.generateGame(sizes));
+        snapshot.set(started);
+        return started.view();
+    }
+    
+    /// {@inheritDoc}
+    ///
+    /// While the game is [PLAYING][GameStatus#PLAYING], [CellType] information
+    /// for [UNKNOWN][CellState#UNKNOWN] [Cell]s is hidden by replacing it with [CellType.Unknown]
+    ///
+    /// This never blocks or retries, every call returns a new copy of the state
+    ///
+    /// @return the state of the game
+    @Override
+    public GameState getGameState() {
+        return snapshot.get().view();
+    }
+    
+    @Override
+    public GameState reveal(int x, int y) {
+        return move(engine -> engine.reveal(x, y)).after.view();
+    }
+    
+    @Override
+    public GameState clearAround(int x, int y) {
+        return move(engine -> engine.clearAround(x, y)).after.view();
+    }
+    
+    @Override
+    public GameState setFlagged(int x, int y, boolean flagged) {
+        return move(engine -> engine.setFlagged(x, y, flagged)).after.view();
+    }
+    
+    /// {@inheritDoc}
+    ///
+    /// The cell's state is checked as part of the same move, so two threads toggling the same cell
+    /// always end up flagging and unflagging it rather than both flagging it
+    @Override
+    public GameState toggleFlag(int x, int y) {
+        return move(engine -> engine.toggleFlag(x, y)).after.view();
+    }
+    
+    /// {@inheritDoc}
+    ///
+    /// Whether to reveal or chord is decided as part of the same move
+    @Override
+    public GameState leftClick(int x, int y) {
+        return move(engine -> engine.leftClick(x, y)).after.view();
+    }
+    
+    @Override
+    public GameState rightClick(int x, int y) {
+        return toggleFlag(x, y);
+    }
+    
+    /// {@inheritDoc}
+    ///
+    /// The delta only has what this click changed, even if other threads are making moves at the same time
+    @Override
+    public GameDelta leftClickDelta(int x, int y) {
+        return move(engine -> engine.leftClick(x, y)).delta();
+    }
+    
+    /// {@inheritDoc}
+    ///
+    /// The delta only has what this click changed, even if other threads are making moves at the same time
+    @Override
+    public GameDelta rightClickDelta(int x, int y) {
+        return move(engine -> engine.toggleFlag(x, y)).delta();
+    }
+    
+    /// a move to make on an engine
+    @FunctionalInterface
+    private interface Move {
+        void make(Engine engine);
+    }
+    
+    /// what a move went from and to, and which cells it changed on the true board if that's known
+    private record Transition(Snapshot before, Snapshot after, IndexList edits) {
+        GameDelta delta() {
+            if (edits != null && before.hidden.status() == after.hidden.status())
+                return GameDelta.of(before.hidden, after.hidden, edits);
+            return GameDelta.between(before.hidden, after.hidden);
+        }
+    }
+    
+    private Transition move(Move move) {
+        var engine = engines.get();
+        while (true) {
+            var before = snapshot.get();
+            if (before.state.status() != GameStatus.PLAYING)
+                return new Transition(before, before, new IndexList());
+            
+            engine.gamestate = before.state;
+            move.make(engine);
+            var state = engine.gamestate;
+            if (state == before.state)
+                return new Transition(before, before, new IndexList());
+            
+            var edits = engine.editsSince(before.state.board());
+            Snapshot after;
+            if (state.status() != GameStatus.PLAYING)
+                after = new Snapshot(state, state);
+            else if (edits != null)
+                after = new Snapshot(state,
+                        new GameState(state.status(), state.board().hideMines(before.hidden.board(), edits), state.remainingMines()));
+            else
+                after = new Snapshot(state);
+            
+            if (snapshot.compareAndSet(before, after)) {
+                if (state.status() == GameStatus.WON)
+                    on_win.run();
+                else if (state.status() == GameStatus.LOST)
+                    on_lose.run();
+                return new Transition(before, after, edits);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+/// Makes moves on whatever [GameState] it's given without hiding anything
+///
+/// For things that keep their games somewhere other than in a [Minsweeper] of their own,
+/// they set [#gamestate], make the move, and take the new [#gamestate] back out
+final class Engine extends AbstractMinsweeper {
+    
+    Engine(BoardSize sizes) {
+        super(sizes, () -> {}, () -> {});
+    }
+    
+    Engine(GameState state) {
+        this(state.board().getSize());
+        this.gamestate = state;
+    }
+    
+    @Override
+    public GameState start() {
+        throw new UnsupportedOperationException("start() is unsupported for engines");
+    }
+}
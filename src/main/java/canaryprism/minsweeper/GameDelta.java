@@ -0,0 +1,186 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.util.Arrays;
+
+/// What changed between two [GameState]s of the same game
+///
+/// Made by the delta variants of the moves like [Minsweeper#leftClickDelta(int, int)],
+/// a GameDelta holds only the [Cell]s whose value changed, along with the [GameStatus] transition
+/// and the change in [GameState#remainingMines()].
+/// Applying it to the board of the state before the move gives the board of the state after it,
+/// so UIs and solvers can keep their own copy up to date without looking at the whole board every move
+///
+/// Changes are stored packed, [#cell(int)] hands out shared [Cell] instances
+public final class GameDelta {
+    
+    private final GameStatus previous_status;
+    private final GameStatus status;
+    private final int remaining_mines_change;
+    private final int width;
+    private final int[] indices;
+    private final byte[] codes;
+    
+    private GameDelta(GameState before, GameState after, int[] indices, byte[] codes) {
+        this.previous_status = before.status();
+        this.status = after.status();
+        this.remaining_mines_change = after.remainingMines() - before.remainingMines();
+        this.width = after.board().getSize().width();
+        this.indices = indices;
+        this.codes = codes;
+    }
+    
+    /// Finds what changed between two [GameState]s by comparing every cell
+    ///
+    /// @param before the state before
+    /// @param after the state after
+    /// @return the delta from `before` to `after`
+    /// @throws IllegalArgumentException if the boards aren't the same size
+    public static GameDelta between(GameState before, GameState after) {
+        var from = before.board();
+        var to = after.board();
+        var size = to.getSize();
+        if (from.getSize().width() != size.width() || from.getSize().height() != size.height())
+            throw new IllegalArgumentException("Boards aren't the same size");
+        
+        var changed = new IndexList();
+        if (from != to)
+            for (int i = 0, length = (int) size.cells(); i < length; i++)
+                if (from.getCode(i) != to.getCode(i))
+                    changed.add(i);
+        
+        return of(before, after, changed);
+    }
+    
+    /// Makes a delta out of only the indices that could have changed
+    ///
+    /// @param before the state before
+    /// @param after the state after
+    /// @param candidates every index that might differ between the two boards, indices that don't are left out
+    /// @return the delta from `before` to `after`
+    static GameDelta of(GameState before, GameState after, IndexList candidates) {
+        var from = before.board();
+        var to = after.board();
+        var indices = new int[candidates.size()];
+        var codes = new byte[candidates.size()];
+        var size = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            var index = candidates.get(i);
+            var code = to.getCode(index);
+            if (code != from.getCode(index)) {
+                indices[size] = index;
+                codes[size] = code;
+                size++;
+            }
+        }
+        return new GameDelta(before, after, Arrays.copyOf(indices, size), Arrays.copyOf(codes, size));
+    }
+    
+    /// Gets the [GameStatus] before the move
+    ///
+    /// @return the previous status
+    public GameStatus previousStatus() {
+        return previous_status;
+    }
+    
+    /// Gets the [GameStatus] after the move
+    ///
+    /// @return the status
+    public GameStatus status() {
+        return status;
+    }
+    
+    /// Gets how much [GameState#remainingMines()] changed by
+    ///
+    /// @return the remaining mines after the move minus the remaining mines before it
+    public int remainingMinesChange() {
+        return remaining_mines_change;
+    }
+    
+    /// Gets the amount of cells that changed
+    ///
+    /// @return the amount of changes
+    public int size() {
+        return indices.length;
+    }
+    
+    /// Checks if nothing about the board changed
+    ///
+    /// The status or remaining mines may still have changed
+    ///
+    /// @return whether no cells changed
+    public boolean isEmpty() {
+        return indices.length == 0;
+    }
+    
+    /// Gets the row-major index (`y * width + x`) of a changed cell
+    ///
+    /// @param i which change
+    /// @return the index of the cell
+    public int index(int i) {
+        return indices[i];
+    }
+    
+    /// Gets the x coordinate of a changed cell
+    ///
+    /// @param i which change
+    /// @return the x coordinate of the cell
+    public int x(int i) {
+        return indices[i] % width;
+    }
+    
+    /// Gets the y coordinate of a changed cell
+    ///
+    /// @param i which change
+    /// @return the y coordinate of the cell
+    public int y(int i) {
+        return indices[i] / width;
+    }
+    
+    /// Gets the new value of a changed cell
+    ///
+    /// @param i which change
+    /// @return the cell after the move
+    public Cell cell(int i) {
+        return CellCodes.cell(codes[i]);
+    }
+    
+    /// Applies the changed cells to a board
+    ///
+    /// If `board` is a copy of the board from before the move, it will be equal to the board after it
+    ///
+    /// @param board the board to change
+    public void applyTo(Board board) {
+        for (int i = 0; i < indices.length; i++)
+            board.setCode(indices[i], codes[i]);
+    }
+    
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("GameDelta[")
+                .append(previous_status).append(" -> ").append(status)
+                .append(", remainingMinesChange=").append(remaining_mines_change)
+                .append(", changes=[");
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('(').append(x(i)).append(", ").append(y(i)).append(")=").append(cell(i));
+        }
+        return builder.append("]]").toString();
+    }
+}
@@ -16,6 +16,8 @@
 
 package canaryprism.minsweeper;
 
+import java.util.OptionalLong;
+
 /// Represents the state of the game
 ///
 /// @param status the status of the game
@@ -25,6 +27,16 @@ package canaryprism.minsweeper;
 ///                       by the amount of [Cell]s that are [FLAGGED][CellState#FLAGGED]
 public record GameState(GameStatus status, Board board, int remainingMines) implements Cloneable {
     
+    /// Gets the seed the board of this game was made from
+    ///
+    /// A game started from a seed keeps it for the whole game, so it can be kept to play the same board again
+    ///
+    /// @return the seed, or empty if the board wasn't made from one
+    /// @see Board#seed()
+    public OptionalLong seed() {
+        return board.seed();
+    }
+    
     GameState withStatus(GameStatus status) {
         return new GameState(status, board, remainingMines);
     }
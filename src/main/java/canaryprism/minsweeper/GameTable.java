@@ -0,0 +1,416 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.util.Arrays;
+
+/// Lots of games of the same [BoardSize] kept in a few big arrays instead of as objects each
+///
+/// Every game is a number, its id. The table stores a game as just its cells' codes, a byte each,
+/// in pages shared with other games, plus its [GameStatus] and remaining mines in columns indexed by id.
+/// A game that isn't being played takes up barely more than its cells,
+/// where a [MinsweeperGame] carries its own objects for the board, the state, the callbacks and so on
+///
+/// Moves are made by id, and [#game(int)] gives a [Minsweeper] for a game for anything that wants one.
+/// A move copies the game onto a [Board] to make it and copies back only the cells it changed,
+/// so the table is meant for lots of small boards rather than a few huge ones
+///
+/// Like [MinsweeperGame] this isn't thread safe, if you need that see [ConcurrentMinsweeper]
+public final class GameTable {
+    
+    /// roughly how many bytes of cells go in each page
+    private static final int PAGE_SIZE = 1 << 20;
+    
+    private final BoardSize size;
+    private final int cells;
+    private final int games_per_page;
+    
+    private byte[][] pages = new byte[0][];
+    private byte[] statuses = new byte[0];
+    private int[] remaining_mines = new int[0];
+    /// how many times each id has been removed, so a [Game] can tell its game is gone even once the id's reused
+    private int[] generations = new int[0];
+    
+    /// ids ever handed out, removed ones included
+    private int ids;
+    /// removed ids, to hand out again before making new ones
+    private final IndexList free = new IndexList();
+    private int games;
+    
+    private final Engine engine;
+    
+    private static final GameStatus[] STATUSES = GameStatus.values();
+    /// marks a removed game in [#statuses]
+    private static final byte REMOVED = -1;
+    
+    /// Constructs an empty GameTable
+    ///
+    /// @param size the size of every game in the table
+    /// @throws IllegalArgumentException if the board has more cells than an `int` can count
+    public GameTable(BoardSize size) {
+        this.size = size;
+        this.cells = Board.length(size);
+        this.games_per_page = Math.max(1, PAGE_SIZE / cells);
+        this.engine = new Engine(size);
+    }
+    
+    /// Gets the [BoardSize] of every game in the table
+    ///
+    /// @return the board size
+    public BoardSize getSize() {
+        return size;
+    }
+    
+    /// Gets how many games are in the table
+    ///
+    /// @return the amount of games
+    public int size() {
+        return games;
+    }
+    
+    /// Adds a game to the table
+    ///
+    /// The game hasn't started yet, like a freshly constructed [MinsweeperGame]
+    ///
+    /// @return the id of the game
+    public int create() {
+        int id;
+        if (free.size() > 0) {
+            id = free.removeLast();
+        } else {
+            id = ids++;
+            if (id == statuses.length) {
+                var capacity = Math.max(16, statuses.length * 2);
+                statuses = Arrays.copyOf(statuses, capacity);
+                remaining_mines = Arrays.copyOf(remaining_mines, capacity);
+                generations = Arrays.copyOf(generations, capacity);
+            }
+            if (id / games_per_page == pages.length) {
+                pages = Arrays.copyOf(pages, pages.length + 1);
+                pages[pages.length - 1] = new byte[games_per_page * cells];
+            }
+        }
+        // code 0 is an empty unknown cell, the same as a new Board
+        var offset = (id % games_per_page) * cells;
+        Arrays.fill(pages[id / games_per_page], offset, offset + cells, (byte) 0);
+        statuses[id] = (byte) GameStatus.NEVER.ordinal();
+        remaining_mines[id] = 0;
+        games++;
+        return id;
+    }
+    
+    /// Adds a game to the table that starts from a given [GameState]
+    ///
+    /// @param state the state of the game
+    /// @return the id of the game
+    /// @throws IllegalArgumentException if the board isn't the table's size
+    public int create(GameState state) {
+        checkSize(state);
+        var id = create();
+        store(id, state);
+        return id;
+    }
+    
+    /// Removes a game from the table
+    ///
+    /// Its id may be handed out again by [#create()],
+    /// but anything [#game(int)] gave out for it stays with the removed game and won't play the new one
+    ///
+    /// @param id the id of the game
+    /// @throws IllegalArgumentException if there's no such game
+    public void remove(int id) {
+        check(id);
+        statuses[id] = REMOVED;
+        generations[id]++;
+        free.add(id);
+        games--;
+    }
+    
+    /// Checks if a game is in the table
+    ///
+    /// @param id the id of the game
+    /// @return whether there's a game with that id
+    public boolean contains(int id) {
+        return id >= 0 && id < ids && statuses[id] != REMOVED;
+    }
+    
+    private void check(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("No game with id " + id);
+    }
+    
+    private void checkSize(GameState state) {
+        if (!state.board().getSize().equals(size))
+            throw new IllegalArgumentException("Board isn't the size of the table");
+    }
+    
+    /// Gets the status of a game without making its [GameState]
+    ///
+    /// @param id the id of the game
+    /// @return the status
+    /// @throws IllegalArgumentException if there's no such game
+    public GameStatus getStatus(int id) {
+        check(id);
+        return STATUSES[statuses[id]];
+    }
+    
+    /// Gets the remaining mines of a game without making its [GameState]
+    ///
+    /// @param id the id of the game
+    /// @return the remaining mines
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see GameState#remainingMines()
+    public int getRemainingMines(int id) {
+        check(id);
+        return remaining_mines[id];
+    }
+    
+    /// Starts or restarts a game with a random board
+    ///
+    /// Like [AbstractRandomMinsweeper#start()], there's no special treatment for the first move
+    ///
+    /// @param id the id of the game
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    public GameState start(int id) {
+        check(id);
+        var state = AbstractRandomMinsweeper.generateGame(size);
+        store(id, state);
+        return hide(state);
+    }
+    
+    /// Replaces the state of a game
+    ///
+    /// @param id the id of the game
+    /// @param state the new state of the game
+    /// @throws IllegalArgumentException if there's no such game or the board isn't the table's size
+    public void set(int id, GameState state) {
+        check(id);
+        checkSize(state);
+        store(id, state);
+    }
+    
+    /// Gets the state of a game
+    ///
+    /// Like [AbstractHidingMinsweeper#getGameState()] the [CellType]s of [UNKNOWN][CellState#UNKNOWN] cells
+    /// are hidden while the game is [PLAYING][GameStatus#PLAYING]
+    ///
+    /// @param id the id of the game
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    public GameState getGameState(int id) {
+        check(id);
+        return hide(load(id));
+    }
+    
+    /// Reveals a cell of a game
+    ///
+    /// @param id the id of the game
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see Minsweeper#reveal(int, int)
+    public GameState reveal(int id, int x, int y) {
+        return move(id, () -> engine.reveal(x, y));
+    }
+    
+    /// Clears around a cell of a game
+    ///
+    /// @param id the id of the game
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see Minsweeper#clearAround(int, int)
+    public GameState clearAround(int id, int x, int y) {
+        return move(id, () -> engine.clearAround(x, y));
+    }
+    
+    /// Sets whether a cell of a game is flagged
+    ///
+    /// @param id the id of the game
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @param flagged whether the cell should be flagged
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see Minsweeper#setFlagged(int, int, boolean)
+    public GameState setFlagged(int id, int x, int y, boolean flagged) {
+        return move(id, () -> engine.setFlagged(x, y, flagged));
+    }
+    
+    /// Toggles whether a cell of a game is flagged
+    ///
+    /// @param id the id of the game
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see Minsweeper#toggleFlag(int, int)
+    public GameState toggleFlag(int id, int x, int y) {
+        return move(id, () -> engine.toggleFlag(x, y));
+    }
+    
+    /// Performs a "left click" on a game
+    ///
+    /// @param id the id of the game
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see Minsweeper#leftClick(int, int)
+    public GameState leftClick(int id, int x, int y) {
+        return move(id, () -> engine.leftClick(x, y));
+    }
+    
+    /// Performs a "right click" on a game
+    ///
+    /// @param id the id of the game
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return the state of the game
+    /// @throws IllegalArgumentException if there's no such game
+    /// @see Minsweeper#rightClick(int, int)
+    public GameState rightClick(int id, int x, int y) {
+        return toggleFlag(id, x, y);
+    }
+    
+    /// Gets a [Minsweeper] that plays a game of the table
+    ///
+    /// It holds nothing but the id, every method goes straight to the table.
+    /// Once the game is [removed][#remove(int)] every method throws [IllegalStateException],
+    /// even if the id has been handed out to another game since
+    ///
+    /// @param id the id of the game
+    /// @return the game
+    /// @throws IllegalArgumentException if there's no such game
+    public Minsweeper game(int id) {
+        check(id);
+        return new Game(id, generations[id]);
+    }
+    
+    private GameState move(int id, Runnable move) {
+        check(id);
+        if (statuses[id] != GameStatus.PLAYING.ordinal())
+            return getGameState(id);
+        
+        var before = load(id);
+        engine.gamestate = before;
+        move.run();
+        var after = engine.gamestate;
+        if (after != before) {
+            var edits = engine.editsSince(before.board());
+            if (edits != null) {
+                var page = pages[id / games_per_page];
+                var offset = (id % games_per_page) * cells;
+                var board = after.board();
+                for (int i = 0; i < edits.size(); i++) {
+                    var index = edits.get(i);
+                    page[offset + index] = board.getCode(index);
+                }
+                statuses[id] = (byte) after.status().ordinal();
+                remaining_mines[id] = after.remainingMines();
+            } else {
+                store(id, after);
+            }
+        }
+        return hide(after);
+    }
+    
+    private GameState load(int id) {
+        var offset = (id % games_per_page) * cells;
+        var codes = Arrays.copyOfRange(pages[id / games_per_page], offset, offset + cells);
+        return new GameState(STATUSES[statuses[id]], new Board(size, codes), remaining_mines[id]);
+    }
+    
+    private void store(int id, GameState state) {
+        var page = pages[id / games_per_page];
+        var offset = (id % games_per_page) * cells;
+        var leaf = new byte[PersistentCells.LEAF_SIZE];
+        var board_cells = state.board().cells();
+        for (int start = 0; start < cells; start += leaf.length) {
+            board_cells.copyLeaf(start, leaf);
+            System.arraycopy(leaf, 0, page, offset + start, Math.min(leaf.length, cells - start));
+        }
+        statuses[id] = (byte) state.status().ordinal();
+        remaining_mines[id] = state.remainingMines();
+    }
+    
+    private static GameState hide(GameState state) {
+        return (state.status() == GameStatus.PLAYING) ? state.hideMines() : state;
+    }
+    
+    /// a [Minsweeper] that's just an id into the table
+    private final class Game implements Minsweeper {
+        
+        private final int id;
+        private final int generation;
+        
+        private Game(int id, int generation) {
+            this.id = id;
+            this.generation = generation;
+        }
+        
+        /// the id, as long as it's still this game's
+        private int id() {
+            if (generations[id] != generation)
+                throw new IllegalStateException("Game was removed from the table");
+            return id;
+        }
+        
+        @Override
+        public GameState start() {
+            return GameTable.this.start(id());
+        }
+        
+        @Override
+        public GameState getGameState() {
+            return GameTable.this.getGameState(id());
+        }
+        
+        @Override
+        public GameState reveal(int x, int y) {
+            return GameTable.this.reveal(id(), x, y);
+        }
+        
+        @Override
+        public GameState clearAround(int x, int y) {
+            return GameTable.this.clearAround(id(), x, y);
+        }
+        
+        @Override
+        public GameState setFlagged(int x, int y, boolean flagged) {
+            return GameTable.this.setFlagged(id(), x, y, flagged);
+        }
+        
+        @Override
+        public GameState toggleFlag(int x, int y) {
+            return GameTable.this.toggleFlag(id(), x, y);
+        }
+        
+        @Override
+        public GameState leftClick(int x, int y) {
+            return GameTable.this.leftClick(id(), x, y);
+        }
+        
+        @Override
+        public GameState rightClick(int x, int y) {
+            return GameTable.this.rightClick(id(), x, y);
+        }
+    }
+}
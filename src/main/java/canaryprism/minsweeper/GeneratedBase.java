@@ -0,0 +1,246 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static canaryprism.minsweeper.CellCodes.*;
+
+/// Cells of a random board that are only generated when they're read
+///
+/// The board is split into chunks of [#CHUNK_SIZE] by [#CHUNK_SIZE] cells.
+/// How many of the board's mines go in each chunk is decided by repeatedly splitting the board in half,
+/// each split drawing how many of the mines go in either half from the seed and where the split is,
+/// so finding a chunk's mine count only takes following the splits down to it
+/// and the counts always add up to exactly [BoardSize#mines()].
+/// The mines are then placed in the chunk from a seed made from the board's seed and the chunk's coordinates.
+///
+/// The same seed always makes the same board no matter what order the chunks are generated in,
+/// so chunks are kept in a small cache and just thrown away when it fills up,
+/// anything that changed about them is in the trie on top of this anyway
+///
+/// All cells are [UNKNOWN][CellState#UNKNOWN]
+final class GeneratedBase extends PersistentCells.Base {
+    
+    static final int CHUNK_BITS = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    
+    /// how many generated chunks are kept around, each one is [#CHUNK_SIZE] longs
+    private static final int CACHE_SIZE = 1024;
+    
+    /// below this many mines (or non mines) a split is drawn exactly, one mine at a time
+    private static final int EXACT_SPLIT = 512;
+    
+    private final BoardSize size;
+    private final long seed;
+    private final int chunks_x, chunks_y;
+    
+    /// a generated chunk, bit `x` of `rows[y]` is whether the cell at `(x, y)` in the chunk is a mine
+    private record Chunk(int chunk_x, int chunk_y, long[] rows) {}
+    
+    private final Map<Long, Chunk> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    /// the last chunk looked at, since cells are mostly read near each other
+    private Chunk last;
+    
+    private int[] counts;
+    
+    GeneratedBase(BoardSize size, long seed) {
+        this.size = size;
+        this.seed = seed;
+        this.chunks_x = (size.width() + CHUNK_MASK) >>> CHUNK_BITS;
+        this.chunks_y = (size.height() + CHUNK_MASK) >>> CHUNK_BITS;
+    }
+    
+    /// @return the amount of cells
+    int length() {
+        return Board.length(size);
+    }
+    
+    @Override
+    byte get(int index) {
+        return codeAt(index % size.width(), index / size.width());
+    }
+    
+    @Override
+    void put(int index, byte code) {
+        throw new UnsupportedOperationException("Generated cells can't be written to");
+    }
+    
+    @Override
+    void get(int index, byte[] destination, int length) {
+        var width = size.width();
+        var x = index % width;
+        var y = index / width;
+        for (int i = 0; i < length; i++) {
+            destination[i] = codeAt(x, y);
+            if (++x == width) {
+                x = 0;
+                y++;
+            }
+        }
+    }
+    
+    /// Counts how many cells of each code the board has, not counting mines
+    ///
+    /// This has to generate every chunk so it's only worked out the first time it's asked for
+    ///
+    /// @return the counts, indexed by code
+    synchronized int[] counts() {
+        if (counts == null) {
+            var counts = new int[CODES];
+            // chunk by chunk, so the cache only needs the chunks around the current one
+            for (int chunk_y = 0; chunk_y < chunks_y; chunk_y++)
+                for (int chunk_x = 0; chunk_x < chunks_x; chunk_x++)
+                    for (int y = chunk_y << CHUNK_BITS; y < Math.min(size.height(), (chunk_y + 1) << CHUNK_BITS); y++)
+                        for (int x = chunk_x << CHUNK_BITS; x < Math.min(size.width(), (chunk_x + 1) << CHUNK_BITS); x++)
+                            counts[codeAt(x, y)]++;
+            counts[code(MINE, CellState.UNKNOWN)] = 0;
+            this.counts = counts;
+        }
+        return counts;
+    }
+    
+    private byte codeAt(int x, int y) {
+        var chunk = chunk(x >>> CHUNK_BITS, y >>> CHUNK_BITS);
+        var local_x = x & CHUNK_MASK;
+        var local_y = y & CHUNK_MASK;
+        if ((chunk.rows[local_y] >>> local_x & 1) != 0)
+            return code(MINE, CellState.UNKNOWN);
+        
+        int number;
+        if (local_x > 0 && local_x < CHUNK_MASK && local_y > 0 && local_y < CHUNK_MASK) {
+            // all the neighbours are in this chunk
+            var rows = chunk.rows;
+            number = Long.bitCount(rows[local_y - 1] >>> (local_x - 1) & 0b111)
+                    + Long.bitCount(rows[local_y] >>> (local_x - 1) & 0b101)
+                    + Long.bitCount(rows[local_y + 1] >>> (local_x - 1) & 0b111);
+        } else {
+            number = 0;
+            for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+                for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                    if (isMine(x2, y2))
+                        number++;
+        }
+        return code(number, CellState.UNKNOWN);
+    }
+    
+    private boolean isMine(int x, int y) {
+        return (chunk(x >>> CHUNK_BITS, y >>> CHUNK_BITS).rows[y & CHUNK_MASK] >>> (x & CHUNK_MASK) & 1) != 0;
+    }
+    
+    private Chunk chunk(int chunk_x, int chunk_y) {
+        var last = this.last;
+        if (last != null && last.chunk_x == chunk_x && last.chunk_y == chunk_y)
+            return last;
+        
+        Chunk chunk;
+        synchronized (cache) {
+            chunk = cache.get(((long) chunk_y << 32) | chunk_x);
+        }
+        if (chunk == null) {
+            chunk = generate(chunk_x, chunk_y);
+            synchronized (cache) {
+                cache.put(((long) chunk_y << 32) | chunk_x, chunk);
+            }
+        }
+        this.last = chunk;
+        return chunk;
+    }
+    
+    private Chunk generate(int chunk_x, int chunk_y) {
+        var width = Math.min(CHUNK_SIZE, size.width() - (chunk_x << CHUNK_BITS));
+        var height = Math.min(CHUNK_SIZE, size.height() - (chunk_y << CHUNK_BITS));
+        var mines = mines(chunk_x, chunk_y);
+        
+        var rows = new long[CHUNK_SIZE];
+        var random = new SplittableRandom(Seeds.split(Seeds.split(seed, chunk_x), chunk_y));
+        BitBoard.setRandom(rows, 1, width, height, mines, random);
+        return new Chunk(chunk_x, chunk_y, rows);
+    }
+    
+    /// Follows the splits down to a chunk to find how many mines it has
+    private int mines(int chunk_x, int chunk_y) {
+        int left = 0, right = chunks_x, top = 0, bottom = chunks_y;
+        long mines = size.mines();
+        var node = Seeds.split(seed, -1);
+        while (right - left > 1 || bottom - top > 1) {
+            var cells = cells(left, right, top, bottom);
+            long half_cells;
+            boolean first;
+            if (right - left >= bottom - top) {
+                var middle = (left + right) >>> 1;
+                half_cells = cells(left, middle, top, bottom);
+                first = chunk_x < middle;
+                if (first) right = middle; else left = middle;
+            } else {
+                var middle = (top + bottom) >>> 1;
+                half_cells = cells(left, right, top, middle);
+                first = chunk_y < middle;
+                if (first) bottom = middle; else top = middle;
+            }
+            var half_mines = split(node, cells, mines, half_cells);
+            mines = first ? half_mines : mines - half_mines;
+            node = Seeds.split(node, first ? 0 : 1);
+        }
+        return (int) mines;
+    }
+    
+    private long cells(int left, int right, int top, int bottom) {
+        long width = Math.min(size.width(), right << CHUNK_BITS) - (left << CHUNK_BITS);
+        long height = Math.min(size.height(), bottom << CHUNK_BITS) - (top << CHUNK_BITS);
+        return width * height;
+    }
+    
+    /// Draws how many of `mines` mines in `cells` cells land in the first `half` of them
+    ///
+    /// this is exactly hypergeometric when there are few mines or few non mines,
+    /// otherwise it's the normal approximation of it
+    private static long split(long seed, long cells, long mines, long half) {
+        if (mines == 0 || half == 0)
+            return 0;
+        if (mines == cells)
+            return half;
+        var random = new SplittableRandom(seed);
+        
+        if (Math.min(mines, cells - mines) <= EXACT_SPLIT) {
+            var few = Math.min(mines, cells - mines);
+            long in_half = 0, half_left = half, cells_left = cells;
+            for (long i = 0; i < few; i++) {
+                if (random.nextLong(cells_left) < half_left) {
+                    in_half++;
+                    half_left--;
+                }
+                cells_left--;
+            }
+            return (few == mines) ? in_half : half - in_half;
+        }
+        
+        var p = (double) half / cells;
+        var mean = mines * p;
+        var deviation = Math.sqrt(mines * p * (1 - p) * (cells - mines) / (cells - 1.0));
+        var drawn = Math.round(mean + deviation * random.nextGaussian());
+        return Math.clamp(drawn, Math.max(0, mines - (cells - half)), Math.min(mines, half));
+    }
+}
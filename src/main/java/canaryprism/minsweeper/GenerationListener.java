@@ -0,0 +1,77 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Solver;
+
+/// Listens to [MinsweeperGame] looking for boards its [Solver] can win
+///
+/// Set one with [MinsweeperGame#setGenerationListener(GenerationListener)].
+/// With [parallelism][MinsweeperGame#setParallelism(int)] more than one thread calls it at once so it has to be thread safe.
+/// It's called right in the middle of generating so it should be quick too
+///
+/// @see GenerationStatistics
+public interface GenerationListener {
+    
+    /// Called after every board that's tried
+    ///
+    /// @param attempt the attempt
+    default void attempted(Attempt attempt) {}
+    
+    /// Called once a board has been found
+    ///
+    /// @param generated how finding it went
+    default void generated(Generated generated) {}
+    
+    /// One board that was tried
+    ///
+    /// For [RETRY][MinsweeperGame.Generation#RETRY] each part of trying the board is timed on its own.
+    /// [REPAIR][MinsweeperGame.Generation#REPAIR] and [CONSTRUCT][MinsweeperGame.Generation#CONSTRUCT]
+    /// mix all of them up with each other, so all of their time is counted as solving
+    /// and the parts that weren't timed are `-1`
+    ///
+    /// @param size the size of the board
+    /// @param solver the solver that had to win it
+    /// @param generation how it was generated
+    /// @param accepted whether the solver could win it
+    /// @param placementNanos how long placing the mines took, or `-1` if it wasn't timed
+    /// @param numberingNanos how long numbering the cells took, or `-1` if it wasn't timed
+    /// @param hidingNanos how long the first reveal and hiding the board from the solver took,
+    ///                    or `-1` if it wasn't timed
+    /// @param solvingNanos how long the solver took
+    record Attempt(BoardSize size, Solver solver, MinsweeperGame.Generation generation, boolean accepted,
+                   long placementNanos, long numberingNanos, long hidingNanos, long solvingNanos) {
+        
+        /// Gets how long the attempt took altogether
+        ///
+        /// @return the time in nanoseconds
+        public long totalNanos() {
+            return Math.max(0, placementNanos) + Math.max(0, numberingNanos) + Math.max(0, hidingNanos) + solvingNanos;
+        }
+    }
+    
+    /// How finding a board went
+    ///
+    /// @param size the size of the board
+    /// @param solver the solver that has to win it
+    /// @param generation how it was generated
+    /// @param attempts how many boards were tried, counting the one that was found
+    /// @param pooled whether it was taken from a [SolvableBoardPool] instead
+    /// @param nanos how long finding it took altogether, the first reveal is waiting this long
+    record Generated(BoardSize size, Solver solver, MinsweeperGame.Generation generation,
+                     long attempts, boolean pooled, long nanos) {}
+}
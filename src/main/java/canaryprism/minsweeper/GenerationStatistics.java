@@ -0,0 +1,288 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Solver;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/// A [GenerationListener] that keeps counts and histograms of everything it hears about
+///
+/// Everything is kept apart by [BoardSize], [Solver] and [generation][MinsweeperGame.Generation],
+/// so how often boards are accepted and where the time goes can be compared between them.
+/// One of these can be shared by any amount of games on any amount of threads
+///
+/// The histograms can be written out with [#writeCsv(Appendable)]
+public final class GenerationStatistics implements GenerationListener {
+    
+    /// What statistics are kept apart by
+    ///
+    /// @param size the size of the boards
+    /// @param solver the solver
+    /// @param generation how boards were generated
+    public record Key(BoardSize size, Solver solver, MinsweeperGame.Generation generation) {}
+    
+    private final Map<Key, Statistics> statistics = new ConcurrentHashMap<>();
+    
+    /// Constructs a GenerationStatistics that hasn't heard about anything yet
+    public GenerationStatistics() {}
+    
+    @Override
+    public void attempted(Attempt attempt) {
+        var statistics = get(new Key(attempt.size(), attempt.solver(), attempt.generation()));
+        statistics.attempts.increment();
+        if (attempt.accepted())
+            statistics.accepted.increment();
+        // parts that weren't timed are negative and don't go in the histograms at all
+        if (attempt.placementNanos() >= 0)
+            statistics.placement.record(attempt.placementNanos());
+        if (attempt.numberingNanos() >= 0)
+            statistics.numbering.record(attempt.numberingNanos());
+        if (attempt.hidingNanos() >= 0)
+            statistics.hiding.record(attempt.hidingNanos());
+        statistics.solving.record(attempt.solvingNanos());
+    }
+    
+    @Override
+    public void generated(Generated generated) {
+        var statistics = get(new Key(generated.size(), generated.solver(), generated.generation()));
+        if (generated.pooled())
+            statistics.pooled.increment();
+        else
+            statistics.attempts_per_board.record(generated.attempts());
+        statistics.board.record(generated.nanos());
+    }
+    
+    private Statistics get(Key key) {
+        return statistics.computeIfAbsent(key, ignored -> new Statistics());
+    }
+    
+    /// Gets the statistics for everything that's been heard about so far
+    ///
+    /// @return the statistics, which keep updating
+    public Map<Key, Statistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+    
+    /// Gets the statistics for one size, solver and generation
+    ///
+    /// @param size the size of the boards
+    /// @param solver the solver
+    /// @param generation how boards were generated
+    /// @return the statistics, which keep updating, or empty if nothing's been heard about them
+    public Optional<Statistics> getStatistics(BoardSize size, Solver solver, MinsweeperGame.Generation generation) {
+        return Optional.ofNullable(statistics.get(new Key(size, solver, generation)));
+    }
+    
+    /// Writes every histogram out as CSV
+    ///
+    /// There's a header, then a row for every bucket that has anything in it with the columns
+    /// `width,height,mines,solver,generation,metric,upper_bound,count`,
+    /// where `upper_bound` is the biggest value the bucket holds and the metric is one of
+    /// `placement_nanos`, `numbering_nanos`, `hiding_nanos`, `solving_nanos`, `board_nanos` or `attempts_per_board`.
+    /// `attempts`, `accepted` and `pooled` are counts and just have a row each with no upper bound
+    ///
+    /// @param out where to write to
+    /// @throws IOException if `out` throws it
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("width,height,mines,solver,generation,metric,upper_bound,count\n");
+        for (var entry : statistics.entrySet()) {
+            var key = entry.getKey();
+            var statistics = entry.getValue();
+            var prefix = key.size().width() + "," + key.size().height() + "," + key.size().mines() + ","
+                    + csv(key.solver().getName()) + "," + key.generation() + ",";
+            out.append(prefix).append("attempts,,").append(Long.toString(statistics.getAttempts())).append('\n');
+            out.append(prefix).append("accepted,,").append(Long.toString(statistics.getAccepted())).append('\n');
+            out.append(prefix).append("pooled,,").append(Long.toString(statistics.getPooled())).append('\n');
+            writeCsv(out, prefix + "placement_nanos,", statistics.placement);
+            writeCsv(out, prefix + "numbering_nanos,", statistics.numbering);
+            writeCsv(out, prefix + "hiding_nanos,", statistics.hiding);
+            writeCsv(out, prefix + "solving_nanos,", statistics.solving);
+            writeCsv(out, prefix + "board_nanos,", statistics.board);
+            writeCsv(out, prefix + "attempts_per_board,", statistics.attempts_per_board);
+        }
+    }
+    
+    private static void writeCsv(Appendable out, String prefix, Histogram histogram) throws IOException {
+        var counts = histogram.getCounts();
+        for (int bucket = 0; bucket < counts.length; bucket++)
+            if (counts[bucket] != 0)
+                out.append(prefix).append(Long.toString(Histogram.upperBound(bucket)))
+                        .append(',').append(Long.toString(counts[bucket])).append('\n');
+    }
+    
+    private static String csv(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0)
+            return field;
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+    
+    /// Statistics for one size, solver and generation
+    ///
+    /// These keep updating as more boards are tried
+    public static final class Statistics {
+        
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder pooled = new LongAdder();
+        
+        private final Histogram placement = new Histogram();
+        private final Histogram numbering = new Histogram();
+        private final Histogram hiding = new Histogram();
+        private final Histogram solving = new Histogram();
+        private final Histogram board = new Histogram();
+        private final Histogram attempts_per_board = new Histogram();
+        
+        private Statistics() {}
+        
+        /// @return how many boards were tried
+        public long getAttempts() {
+            return attempts.sum();
+        }
+        
+        /// @return how many of the boards tried could be won
+        public long getAccepted() {
+            return accepted.sum();
+        }
+        
+        /// @return how many boards were taken from a [SolvableBoardPool] instead
+        public long getPooled() {
+            return pooled.sum();
+        }
+        
+        /// @return the fraction of boards tried that could be won, or `NaN` if none were tried
+        public double getAcceptanceRate() {
+            var attempts = getAttempts();
+            return (attempts == 0) ? Double.NaN : (double) getAccepted() / attempts;
+        }
+        
+        /// @return how long placing mines took for each board tried
+        public Histogram getPlacement() {
+            return placement;
+        }
+        
+        /// @return how long numbering cells took for each board tried
+        public Histogram getNumbering() {
+            return numbering;
+        }
+        
+        /// @return how long the first reveal and hiding the board took for each board tried
+        public Histogram getHiding() {
+            return hiding;
+        }
+        
+        /// @return how long the solver took for each board tried
+        public Histogram getSolving() {
+            return solving;
+        }
+        
+        /// @return how long each first reveal waited for its board, pooled or not
+        public Histogram getBoard() {
+            return board;
+        }
+        
+        /// @return how many boards were tried for each board found, not counting pooled ones
+        public Histogram getAttemptsPerBoard() {
+            return attempts_per_board;
+        }
+    }
+    
+    /// A histogram of non negative values with a bucket for every power of 2
+    ///
+    /// Bucket 0 holds 0 and bucket `i` holds the values from `2^(i-1)` up to `2^i - 1`,
+    /// which is only precise to within a factor of 2 but never needs more than 64 buckets
+    /// and recording is just an increment. Negative values are recorded as 0
+    public static final class Histogram {
+        
+        private final AtomicLongArray counts = new AtomicLongArray(Long.SIZE);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        
+        private Histogram() {}
+        
+        void record(long value) {
+            value = Math.max(0, value);
+            counts.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+            sum.add(value);
+            max.accumulate(value);
+        }
+        
+        /// Gets the biggest value a bucket holds
+        ///
+        /// @param bucket the bucket
+        /// @return the biggest value in it
+        public static long upperBound(int bucket) {
+            return (bucket == Long.SIZE - 1) ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+        
+        /// @return how many values are in each bucket
+        public long[] getCounts() {
+            var counts = new long[this.counts.length()];
+            for (int i = 0; i < counts.length; i++)
+                counts[i] = this.counts.get(i);
+            return counts;
+        }
+        
+        /// @return how many values were recorded
+        public long getCount() {
+            long count = 0;
+            for (int i = 0; i < counts.length(); i++)
+                count += counts.get(i);
+            return count;
+        }
+        
+        /// @return the mean of the values exactly, or `NaN` if there aren't any
+        public double getMean() {
+            var count = getCount();
+            return (count == 0) ? Double.NaN : (double) sum.sum() / count;
+        }
+        
+        /// @return the biggest value recorded exactly, or 0 if there aren't any
+        public long getMax() {
+            return max.get();
+        }
+        
+        /// Gets a percentile, rounded up to the top of its bucket
+        ///
+        /// @param percentile the percentile, from 0 to 100
+        /// @return the upper bound of the bucket the percentile is in, or 0 if there aren't any values
+        /// @throws IllegalArgumentException if `percentile` isn't from 0 to 100
+        public long getPercentile(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100))
+                throw new IllegalArgumentException("Invalid percentile " + percentile);
+            var counts = getCounts();
+            long total = 0;
+            for (var count : counts)
+                total += count;
+            var rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank && seen > 0)
+                    return Math.min(upperBound(bucket), getMax());
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.util.Arrays;
+
+/// Growable list of cell indices that doesn't box anything
+///
+/// Used by [Board] to record which cells a move changed
+final class IndexList {
+    
+    private int[] indices = new int[16];
+    private int size;
+    
+    void add(int index) {
+        if (size == indices.length)
+            indices = Arrays.copyOf(indices, size * 2);
+        indices[size++] = index;
+    }
+    
+    int get(int i) {
+        return indices[i];
+    }
+    
+    int removeLast() {
+        return indices[--size];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void clear() {
+        size = 0;
+    }
+}
@@ -104,17 +104,18 @@ public interface Minsweeper {
     /// @param y the y coordinate
     /// @return the state of the game
     default GameState leftClick(int x, int y) {
-        if (getGameState().status() != GameStatus.PLAYING) return getGameState();
-        if (!(x >= 0 && x < getGameState().board().getSize().width() && y >= 0 && y < getGameState().board().getSize().height()))
-            return getGameState();
+        var state = getGameState();
+        if (state.status() != GameStatus.PLAYING) return state;
+        if (!(x >= 0 && x < state.board().getSize().width() && y >= 0 && y < state.board().getSize().height()))
+            return state;
         
-        var cell = getGameState().board().get(x, y);
+        var cell = state.board().get(x, y);
         
         if (cell.type() instanceof CellType.Safe && cell.state() == CellState.REVEALED)
             return clearAround(x, y);
         if (cell.state() == CellState.UNKNOWN)
             return reveal(x, y);
-        return getGameState();
+        return state;
     }
     
     /// Performs a "right click" by the conventional minesweeper input scheme
@@ -128,4 +129,32 @@ public interface Minsweeper {
     default GameState rightClick(int x, int y) {
         return toggleFlag(x, y);
     }
+    
+    /// Performs a [left click][#leftClick(int, int)] and returns only what it changed
+    ///
+    /// Applying the returned delta to the board of the state from before the click
+    /// gives the board of the state after it
+    ///
+    /// The default implementation compares the whole board from before and after,
+    /// implementations like [AbstractMinsweeper] know what they changed and only look at that
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return what the click changed
+    /// @see GameDelta
+    default GameDelta leftClickDelta(int x, int y) {
+        var before = getGameState();
+        return GameDelta.between(before, leftClick(x, y));
+    }
+    
+    /// Performs a [right click][#rightClick(int, int)] and returns only what it changed
+    ///
+    /// @param x the x coordinate
+    /// @param y the y coordinate
+    /// @return what the click changed
+    /// @see #leftClickDelta(int, int)
+    default GameDelta rightClickDelta(int x, int y) {
+        var before = getGameState();
+        return GameDelta.between(before, rightClick(x, y));
+    }
 }
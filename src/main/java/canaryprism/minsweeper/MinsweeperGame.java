@@ -16,8 +16,16 @@
 
 package canaryprism.minsweeper;
 
+import canaryprism.minsweeper.event.GenerationAttemptEvent;
 import canaryprism.minsweeper.solver.Solver;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
 /// # Main class of minsweeper game
 ///
 /// This is the primary implementation of [Minsweeper] and it has the most complete features
@@ -64,6 +72,19 @@ import canaryprism.minsweeper.solver.Solver;
 /// To make this easier to work with, the board generation process may be [interrupted][Thread#interrupt()],
 /// where a [GenerationInterruptedException] is thrown
 ///
+/// Boards can be tried on more than one thread at once with [#setParallelism(int)],
+/// which is a lot faster for solvers that need many tries like on Expert,
+/// or [repaired][Generation#REPAIR] instead of thrown away when they can't be won,
+/// or [built while being solved][Generation#CONSTRUCT],
+/// or they can be found ahead of time by a [SolvableBoardPool] given with [#setPool(SolvableBoardPool)]
+///
+/// ### Seeds
+///
+/// Every board is made from a seed, which is kept in [GameState#seed()] so the board can be made again.
+/// Starting with [#start(long)] or [#start(Solver, long)] picks the seed,
+/// with a solver the `k`th board tried is made from a seed split off the given one by `k`,
+/// so the same seed, solver and first reveal always end up with the same board
+///
 /// ## Weirdness
 ///
 /// Since this is the main class i figured i'd just throw in all of the more different bits of this minesweeper
@@ -73,12 +94,52 @@ import canaryprism.minsweeper.solver.Solver;
 ///   MinsweeperGame doesn't pretend leftover mines are flagged when they weren't
 /// - continuing from the last weirdness, this means the [GameState#remainingMines]
 ///   is also not set to 0 if not all mines were flagged
-/// - the first move is *still* not guaranteed safe or a zero, to achieve this the Solver api may be abused
+/// - without a [Solver] the first move is *still* not guaranteed safe or a zero, to achieve this the Solver api may be abused
 ///   see [canaryprism.minsweeper.solver.impl.start]
 ///
 public final class MinsweeperGame extends AbstractRandomMinsweeper {
     
     private Solver solver;
+    private long seed;
+    
+    /// whether the seed was picked with [#start(Solver, long)], boards from the [#pool] wouldn't come from it
+    private boolean seeded;
+    
+    private int parallelism = 1;
+    private Executor executor = ForkJoinPool.commonPool();
+    
+    private SolvableBoardPool pool;
+    
+    private Generation generation = Generation.RETRY;
+    
+    private GenerationListener listener;
+    /// how many boards have been tried for the current game
+    private final AtomicLong attempts = new AtomicLong();
+    
+    /// How a [MinsweeperGame] finds a board that its [Solver] can win
+    ///
+    /// @see #setGeneration(Generation)
+    public enum Generation {
+        /// Keep generating random boards until the solver can win one
+        ///
+        /// Every board the solver can win is as likely as any other,
+        /// but on dense boards it can take a very long time to find one
+        RETRY,
+        /// Generate a random board and move mines away from wherever the solver gets stuck
+        /// until it can win, picking up where it got stuck every time
+        ///
+        /// This takes about as long as solving the board a few times no matter how dense it is,
+        /// but the boards aren't uniformly random, they have fewer mines around the first reveal than usual
+        /// and their [seed][GameState#seed()] isn't kept since it wouldn't make them again
+        REPAIR,
+        /// Build the board while the solver plays it, only deciding where mines are once the solver
+        /// reveals something next to them, and deciding again whenever that leaves it without a move
+        ///
+        /// This finds a board in one go almost every time even on boards far too dense for [#RETRY],
+        /// but the boards are even less uniformly random than with [#REPAIR], leaning towards being easy to solve,
+        /// and their [seed][GameState#seed()] isn't kept either
+        CONSTRUCT
+    }
     
     /// Constructs a new MinsweeperGame with given size and Runnables invoked for winning and losing
     ///
@@ -124,13 +185,39 @@ public final class MinsweeperGame extends AbstractRandomMinsweeper {
         return start(null);
     }
     
+    /// {@inheritDoc}
+    ///
+    /// The board is only made once the first cell is revealed, like [#start()]
+    @Override
+    public GameState start(long seed) {
+        return start(null, seed);
+    }
+    
     /// Start or restart a Minsweeper game with a given [Solver]
     ///
     /// The game will be guaranteed solvable by the passed `solver`
     ///
     ///
     public GameState start(Solver solver) {
+        return start(solver, ThreadLocalRandom.current().nextLong(), false);
+    }
+    
+    /// Start or restart a Minsweeper game with a given [Solver] from a seed
+    ///
+    /// The game will be guaranteed solvable by the passed `solver`,
+    /// and the same seed, solver and first reveal always give the same game
+    ///
+    /// @param solver the solver, or `null` to not need one
+    /// @param seed the seed
+    /// @return the state of the game
+    public GameState start(Solver solver, long seed) {
+        return start(solver, seed, true);
+    }
+    
+    private GameState start(Solver solver, long seed, boolean seeded) {
         this.solver = solver;
+        this.seed = seed;
+        this.seeded = seeded;
         
         this.gamestate = new GameState(GameStatus.PLAYING, new Board(sizes), sizes.mines());
         
@@ -141,6 +228,74 @@ public final class MinsweeperGame extends AbstractRandomMinsweeper {
     
     private volatile boolean first;
     
+    /// Sets how many boards are tried at once when looking for a solvable one
+    ///
+    /// The boards are tried on the [common pool][ForkJoinPool#commonPool()],
+    /// see [#setParallelism(int, Executor)]
+    ///
+    /// @param parallelism how many boards to try at once
+    /// @throws IllegalArgumentException if `parallelism` is less than 1
+    public void setParallelism(int parallelism) {
+        setParallelism(parallelism, ForkJoinPool.commonPool());
+    }
+    
+    /// Sets how many boards are tried at once when looking for a solvable one, and what runs them
+    ///
+    /// With a parallelism of 1, which is the default, boards are tried one at a time on the thread that reveals.
+    /// Otherwise the revealing thread and `parallelism - 1` workers given to `executor` take turns
+    /// claiming the next few boards to try, so the revealing thread never just sits there waiting
+    /// for an executor that's too busy to run the workers, even if it's one of the executor's own threads.
+    /// As soon as a solvable board is found workers stop trying boards after it,
+    /// and the board picked is always the same one that trying them one at a time would have picked,
+    /// so [seeds][#start(Solver, long)] give the same game no matter the parallelism.
+    ///
+    /// Interrupting the revealing thread stops the workers after the boards they're on
+    /// and throws [GenerationInterruptedException].
+    /// Nothing stops a board that's already being tried though, so that waits until the [Solver] is done with it,
+    /// which for a slow Solver on a big board can take a while.
+    /// The [Solver] is used from all the workers at once so it has to be thread safe
+    ///
+    /// @param parallelism how many boards to try at once
+    /// @param executor what to run the workers on
+    /// @throws IllegalArgumentException if `parallelism` is less than 1
+    public void setParallelism(int parallelism, Executor executor) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        this.parallelism = parallelism;
+        this.executor = Objects.requireNonNull(executor);
+    }
+    
+    /// Sets how boards the [Solver] can win are found
+    ///
+    /// The default is [Generation#RETRY]
+    ///
+    /// @param generation how to find boards
+    public void setGeneration(Generation generation) {
+        this.generation = Objects.requireNonNull(generation);
+    }
+    
+    /// Sets a listener to tell about every board tried while looking for one the [Solver] can win
+    ///
+    /// @param listener the listener, or `null` to not have one
+    /// @see GenerationStatistics
+    public void setGenerationListener(GenerationListener listener) {
+        this.listener = listener;
+    }
+    
+    /// Sets a pool to take solvable boards from
+    ///
+    /// If the game was started with [#start(Solver)] and `pool` has a board for this size, solver and the cell
+    /// that's revealed first, the first reveal takes it instead of looking for one.
+    /// If it doesn't the board is looked for like normal, while the pool's background threads wait.
+    /// Games started with a seed never take boards from the pool since they wouldn't be made from that seed.
+    /// The pool's boards are always generated by [retrying][Generation#RETRY], see [SolvableBoardPool]
+    ///
+    /// @param pool the pool, or `null` to not use one
+    /// @see SolvableBoardPool#add(BoardSize, Solver, int, int)
+    public void setPool(SolvableBoardPool pool) {
+        this.pool = pool;
+    }
+    
     /// {@inheritDoc}
     ///
     /// @throws GenerationInterruptedException if the thread is interrupted
@@ -154,76 +309,241 @@ public final class MinsweeperGame extends AbstractRandomMinsweeper {
             this.first = false;
             
             if (this.solver != null) {
-                this.first = false;
-//            this.gamestate = generateGame(x, y);
                 var solver = this.solver;
-//            var future = new CompletableFuture<GameState>();
-                final var thread_batch = 100;
-                final var loop_batch = 1;
-//            try (var pool = new ForkJoinPool(ForkJoinPool.getCommonPoolParallelism())) {
-//                solver_loop:
-//                while (true) {
-//
-//                    var futures = new ArrayList<Future<GameState>>(thread_batch);
-//                    try {
-//
-//                        for (int i = 0; i < thread_batch; i++) {
-////                    throw new RuntimeException();
-//                            futures.add(pool.submit(ForkJoinTask.adapt(() -> {
-//                                for (int j = 0; j < loop_batch; j++) {
-//                                    var original_state = generateGame();
-//                                    var game = new SetMinsweeperGame(original_state.clone());
-//                                    var state = game.reveal(x, y);
-//                                    var result = solver.solve(game, state);
-//
-//                                    if (result == Solver.Result.WON) {
-////                                        System.out.println("solution");
-//                                        return original_state;
-////                                        this.gamestate = original_state;
-////                                    break solver_loop;
-//                                    }
-//                                }
-//                                return null;
-//                            })));
-//                        }
-//
-//                        for (var future : futures) {
-//                            try {
-//                                var result = future.get();
-//                                if (result != null) {
-//                                    System.out.println("solution");
-//                                    this.gamestate = result;
-//                                    break solver_loop;
-//                                }
-//                            } catch (InterruptedException | ExecutionException | IllegalStateException ignored) {}
-//                        }
-//                    } finally {
-//                        futures.forEach(future -> future.cancel(true));
-//                    }
-//
-//                }
-//            }
-                
+                var start = System.nanoTime();
+                attempts.set(0);
+                this.gamestate = (pool != null && !seeded)
+                        ? pool.take(sizes, solver, x, y, () -> generateSolvable(solver, x, y))
+                        : generateSolvable(solver, x, y);
+                var listener = this.listener;
+                if (listener != null)
+                    listener.generated(new GenerationListener.Generated(sizes, solver, generation,
+                            attempts.get(), attempts.get() == 0, System.nanoTime() - start));
+            } else {
+                this.gamestate = generateGame(seed);
+            }
+        }
+        
+        return super.reveal(x, y);
+    }
+    
+    /// tries boards one after another on this thread until one is solvable, or on a [Search] if there's parallelism
+    private GameState generateSolvable(Solver solver, int x, int y) {
+        if (parallelism > 1)
+            return new Search(solver, x, y).run();
+        for (long attempt = 0; ; attempt++) {
+            if (Thread.interrupted())
+                throw new GenerationInterruptedException(new InterruptedException());
+            var state = attempt(solver, x, y, attempt);
+            if (state != null)
+                return state;
+        }
+    }
+    
+    private GameState attempt(Solver solver, int x, int y, long attempt) {
+        attempts.incrementAndGet();
+        var seed = Seeds.split(this.seed, attempt);
+        var listener = this.listener;
+        if (generation == Generation.RETRY)
+            return solvable(sizes, solver, x, y, seed, listener);
+        
+        var event = new GenerationAttemptEvent();
+        event.begin();
+        var start = System.nanoTime();
+        var state = (generation == Generation.REPAIR)
+                ? BoardRepair.solvable(sizes, solver, x, y, seed)
+                : BoardConstruction.solvable(sizes, solver, x, y, seed);
+        event.end();
+        if (listener != null || event.shouldCommit()) {
+            var tried = new GenerationListener.Attempt(sizes, solver, generation, state != null,
+                    -1, -1, -1, System.nanoTime() - start);
+            if (listener != null)
+                listener.attempted(tried);
+            commit(event, tried);
+        }
+        return state;
+    }
+    
+    /// Generates a board from a seed and checks if a solver can win it
+    ///
+    /// @return the game if `solver` can win it after revealing `(x, y)`, or `null` if it can't
+    static GameState solvable(BoardSize sizes, Solver solver, int x, int y, long seed) {
+        return solvable(sizes, solver, x, y, seed, null);
+    }
+    
+    /// [#solvable(BoardSize, Solver, int, int, long)] that tells `listener` how long each part took if there is one
+    ///
+    /// the parts are only timed if there's a listener or the attempt is being recorded in a [GenerationAttemptEvent]
+    static GameState solvable(BoardSize sizes, Solver solver, int x, int y, long seed, GenerationListener listener) {
+        var event = new GenerationAttemptEvent();
+        event.begin();
+        var timed = listener != null || event.isEnabled();
+        var start = (timed) ? System.nanoTime() : 0;
+        var mines = Board.placeMines(sizes, seed, x, y, solver.getSafeRadius());
+        var placed = (timed) ? System.nanoTime() : 0;
+        var original_state = new GameState(GameStatus.PLAYING, Board.numberMines(mines, seed), sizes.mines());
+        var numbered = (timed) ? System.nanoTime() : 0;
+        var game = new SetMinsweeperGame(original_state.clone());
+        game.reveal(x, y);
+        game.getGameState();
+        var hidden = (timed) ? System.nanoTime() : 0;
+        var won = solver.solve(game) == Solver.Result.WON;
+        var solved = (timed) ? System.nanoTime() : 0;
+        event.end();
+        if (listener != null || event.shouldCommit()) {
+            var tried = new GenerationListener.Attempt(sizes, solver, Generation.RETRY, won,
+                    placed - start, numbered - placed, hidden - numbered, solved - hidden);
+            if (listener != null)
+                listener.attempted(tried);
+            commit(event, tried);
+        }
+        return won ? original_state : null;
+    }
+    
+    /// Commits `event` for an attempt, if it's being recorded
+    private static void commit(GenerationAttemptEvent event, GenerationListener.Attempt attempt) {
+        if (event.shouldCommit()) {
+            event.width = attempt.size().width();
+            event.height = attempt.size().height();
+            event.mines = attempt.size().mines();
+            event.solver = attempt.solver().getName();
+            event.generation = attempt.generation().name();
+            event.accepted = attempt.accepted();
+            event.placement = Math.max(0, attempt.placementNanos());
+            event.numbering = Math.max(0, attempt.numberingNanos());
+            event.hiding = Math.max(0, attempt.hidingNanos());
+            event.solving = attempt.solvingNanos();
+            event.commit();
+        }
+    }
+    
+    /// A search for a solvable board on [#parallelism] workers at once
+    ///
+    /// Workers claim attempts a batch at a time and try them in order.
+    /// Once some attempt is solvable none of the attempts after it are worth trying,
+    /// but the ones before it still have to finish in case one of them is solvable too,
+    /// since the board picked has to be the first solvable one for it to not depend on how the work was split.
+    /// Each worker keeps the first attempt it still has to try in [#owed], the search is over once
+    /// none of them owe an attempt before the best one found
+    private final class Search {
+        
+        /// how many attempts a worker claims at once
+        private static final int BATCH = 4;
+        
+        private static final long NONE = Long.MAX_VALUE;
+        
+        private final Solver solver;
+        private final int x, y;
+        
+        private final long[] owed;
+        private long next;
+        private long best = NONE;
+        private GameState result;
+        private Throwable failure;
+        private boolean cancelled;
+        
+        Search(Solver solver, int x, int y) {
+            this.solver = solver;
+            this.x = x;
+            this.y = y;
+            this.owed = new long[parallelism];
+            Arrays.fill(owed, NONE);
+        }
+        
+        GameState run() {
+            try {
+                for (int i = 1; i < owed.length; i++) {
+                    var worker = i;
+                    executor.execute(() -> work(worker));
+                }
+                // this thread is a worker too, so the search gets somewhere even if the executor never runs the others,
+                // like when every thread of the common pool is waiting on a search of its own
+                work(0);
+                synchronized (this) {
+                    while (!finished())
+                        wait();
+                    if (failure instanceof RuntimeException e)
+                        throw e;
+                    if (failure instanceof Error e)
+                        throw e;
+                    return result;
+                }
+            } catch (InterruptedException e) {
+                throw new GenerationInterruptedException(e);
+            } finally {
+                synchronized (this) {
+                    cancelled = true;
+                }
+            }
+        }
+        
+        private boolean finished() {
+            if (failure != null)
+                return true;
+            if (best == NONE)
+                return false;
+            for (var attempt : owed)
+                if (attempt < best)
+                    return false;
+            return true;
+        }
+        
+        private void work(int worker) {
+            try {
                 while (true) {
-                    if (Thread.interrupted())
+                    if (worker == 0 && Thread.interrupted())
                         throw new GenerationInterruptedException(new InterruptedException());
-                    var original_state = generateGame();
-                    var game = new SetMinsweeperGame(original_state.clone());
-                    game.reveal(x, y);
-                    var result = solver.solve(game);
-                    
-                    if (result == Solver.Result.WON) {
-                        this.gamestate = original_state;
-//                                        this.gamestate = original_state;
-                        break;
+                    long start;
+                    synchronized (this) {
+                        if (cancelled || next > best)
+                            return;
+                        start = next;
+                        next += BATCH;
+                        owed[worker] = start;
+                    }
+                    for (var attempt = start; attempt < start + BATCH; attempt++) {
+                        synchronized (this) {
+                            if (cancelled || attempt > best)
+                                break;
+                        }
+                        var state = attempt(solver, x, y, attempt);
+                        synchronized (this) {
+                            if (state != null && attempt < best) {
+                                best = attempt;
+                                result = state;
+                            }
+                            owed[worker] = (attempt + 1 < start + BATCH) ? attempt + 1 : NONE;
+                            notifyAll();
+                        }
+                    }
+                    synchronized (this) {
+                        owed[worker] = NONE;
                     }
                 }
-            } else {
-                this.gamestate = generateGame();
+            } catch (Throwable e) {
+                synchronized (this) {
+                    if (failure == null)
+                        failure = e;
+                    notifyAll();
+                }
+            } finally {
+                synchronized (this) {
+                    owed[worker] = NONE;
+                    notifyAll();
+                }
             }
         }
-        
-        return super.reveal(x, y);
+    }
+    
+    /// {@inheritDoc}
+    ///
+    /// Does nothing if there hasn't been a [#reveal(int, int)] yet this game,
+    /// since there's no board to clear around yet
+    @Override
+    public GameState clearAround(int x, int y) {
+        if (first)
+            return getGameState();
+        return super.clearAround(x, y);
     }
     
     /// {@inheritDoc}
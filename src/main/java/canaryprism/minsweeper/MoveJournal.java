@@ -0,0 +1,340 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/// An append-only file of every move made in a game, that the game can be replayed from
+///
+/// Moves are recorded by giving the journal to an [AbstractMinsweeper] with [AbstractMinsweeper#setJournal(MoveJournal)].
+/// Before the first move on a board the whole [GameState] is written, mines and all,
+/// and after that each [reveal][Minsweeper#reveal(int, int)], [clear around][Minsweeper#clearAround(int, int)]
+/// and [flag][Minsweeper#setFlagged(int, int, boolean)] is a varint of the cell's index and what was done to it,
+/// so most moves only take a byte or two.
+/// Starting a new game starts a new game in the journal too
+///
+/// The file is memory mapped and written a region at a time, so moves are in the file as soon as they're made
+/// and survive the program crashing. [#force()] makes sure they're on the disk too.
+/// A journal can't be more than 2GB
+///
+/// [Opening][#open(Path)] a journal gives a [Reader], which can replay any game up to any move
+public final class MoveJournal implements Closeable {
+    
+    /// "MSWJ"
+    private static final int MAGIC = 0x4d53574a;
+    private static final int VERSION = 1;
+    
+    static final int HEADER = 64;
+    
+    /// how much of the file is mapped at once
+    private static final int REGION_SIZE = 1 << 24;
+    
+    /// marks a new game, every other entry is a move plus [#MOVE] and the end of the journal is 0
+    private static final int GAME = 1;
+    private static final int MOVE = 2;
+    
+    static final int REVEAL = 0;
+    static final int CLEAR_AROUND = 1;
+    static final int FLAG = 2;
+    static final int UNFLAG = 3;
+    private static final int ACTION_BITS = 2;
+    
+    private final FileChannel channel;
+    private final BoardSize size;
+    
+    private MappedByteBuffer region;
+    private long region_start;
+    
+    private MoveJournal(FileChannel channel, BoardSize size) {
+        this.channel = channel;
+        this.size = size;
+    }
+    
+    /// Creates a new journal
+    ///
+    /// The file is created, or overwritten if it already exists
+    ///
+    /// @param file the file
+    /// @param size the size of the boards that will be played
+    /// @return the journal
+    /// @throws IOException if the file couldn't be created
+    public static MoveJournal create(Path file, BoardSize size) throws IOException {
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            var journal = new MoveJournal(channel, size);
+            journal.ensure(HEADER);
+            journal.region.putInt(MAGIC).putInt(VERSION)
+                    .putInt(size.width()).putInt(size.height()).putInt(size.mines())
+                    .position(HEADER);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /// Opens a journal to replay it
+    ///
+    /// The journal can still be being written to, only what was written before it was opened is read
+    ///
+    /// @param file the file
+    /// @return the reader
+    /// @throws IOException if the file couldn't be read or isn't a journal
+    public static Reader open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() < HEADER || buffer.getInt() != MAGIC)
+                throw new IOException("Not a move journal");
+            if (buffer.getInt() != VERSION)
+                throw new IOException("Unsupported move journal version");
+            BoardSize size;
+            try {
+                size = new BoardSize(buffer.getInt(), buffer.getInt(), buffer.getInt());
+                Board.length(size);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid board size", e);
+            }
+            return new Reader(buffer, size);
+        }
+    }
+    
+    /// Gets the [BoardSize] of the boards in this journal
+    ///
+    /// @return the board size
+    public BoardSize getSize() {
+        return size;
+    }
+    
+    private static long snapshotBytes(BoardSize size) {
+        return 1 + Integer.BYTES + 3L * ((size.width() + 63) >>> 6) * size.height() * Long.BYTES;
+    }
+    
+    /// makes sure there's room to write `bytes` bytes in the mapped region, mapping the next one if not
+    private void ensure(long bytes) throws IOException {
+        if (!channel.isOpen())
+            throw new IllegalStateException("Journal is closed");
+        if (region != null && region.remaining() >= bytes)
+            return;
+        var position = (region == null) ? 0 : region_start + region.position();
+        if (position + bytes > Integer.MAX_VALUE)
+            throw new IOException("Journal is full");
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION_SIZE, bytes));
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        region_start = position;
+    }
+    
+    private void putVarint(long value) {
+        while ((value & ~0x7fL) != 0) {
+            region.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        region.put((byte) value);
+    }
+    
+    /// Starts a new game in the journal
+    ///
+    /// @param state the state the game's moves start from
+    void begin(GameState state) {
+        try {
+            var bits = BitBoard.of(state.board());
+            ensure(1 + snapshotBytes(size));
+            putVarint(GAME);
+            region.put((byte) state.status().ordinal()).putInt(state.remainingMines());
+            for (var plane : new long[][] { bits.mines(), bits.revealed(), bits.flagged() })
+                for (var word : plane)
+                    region.putLong(word);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /// Records a move
+    ///
+    /// @param action what was done
+    /// @param index the index of the cell it was done to
+    void append(int action, int index) {
+        try {
+            ensure(10);
+            putVarint(((long) index << ACTION_BITS | action) + MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /// Makes sure everything written so far is on the disk
+    ///
+    /// @throws IOException if it couldn't be
+    public void force() throws IOException {
+        if (region != null)
+            region.force();
+        channel.force(true);
+    }
+    
+    /// Closes the journal
+    ///
+    /// Anything already recorded stays in the file, moves made after this throw [IllegalStateException]
+    ///
+    /// @throws IOException if the file couldn't be closed
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+    
+    /// Reads the games in a [MoveJournal] back
+    ///
+    /// Opening the journal finds where every game starts, replaying one only reads that game
+    public static final class Reader {
+        
+        private final ByteBuffer buffer;
+        private final BoardSize size;
+        
+        /// where each game's snapshot starts
+        private final IndexList games = new IndexList();
+        /// how many moves each game has
+        private final IndexList moves = new IndexList();
+        
+        private Reader(ByteBuffer buffer, BoardSize size) throws IOException {
+            this.buffer = buffer;
+            this.size = size;
+            
+            var snapshot_bytes = snapshotBytes(size);
+            long position = HEADER;
+            var count = 0;
+            while (position < buffer.limit()) {
+                long entry = 0;
+                int shift = 0, b;
+                do {
+                    if (position >= buffer.limit() || shift > 63)
+                        throw new IOException("Corrupt move journal");
+                    b = buffer.get((int) position++);
+                    entry |= (long) (b & 0x7f) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                
+                if (entry == 0)
+                    break;
+                if (entry == GAME) {
+                    // a game still being written when the journal was opened
+                    if (position + snapshot_bytes > buffer.limit())
+                        break;
+                    if (games.size() > 0)
+                        moves.add(count);
+                    games.add((int) position);
+                    count = 0;
+                    position += snapshot_bytes;
+                } else {
+                    if (games.size() == 0)
+                        throw new IOException("Corrupt move journal");
+                    count++;
+                }
+            }
+            if (games.size() > 0)
+                moves.add(count);
+        }
+        
+        /// Gets the [BoardSize] of the boards in the journal
+        ///
+        /// @return the board size
+        public BoardSize getSize() {
+            return size;
+        }
+        
+        /// Gets how many games are in the journal
+        ///
+        /// @return the amount of games
+        public int games() {
+            return games.size();
+        }
+        
+        /// Gets how many moves were made in a game
+        ///
+        /// @param game which game
+        /// @return the amount of moves
+        /// @throws IndexOutOfBoundsException if there's no such game
+        public int moves(int game) {
+            return moves.get(Objects.checkIndex(game, games.size()));
+        }
+        
+        /// Replays a whole game
+        ///
+        /// @param game which game
+        /// @return the state after the game's last move
+        /// @throws IndexOutOfBoundsException if there's no such game
+        public GameState replay(int game) {
+            return replay(game, moves(game));
+        }
+        
+        /// Replays a game up to a move
+        ///
+        /// The state returned is the true state of the game, nothing is hidden even if the game is still going
+        ///
+        /// @param game which game
+        /// @param moves how many of its moves to replay
+        /// @return the state after that many moves
+        /// @throws IndexOutOfBoundsException if there's no such game or it doesn't have that many moves
+        public GameState replay(int game, int moves) {
+            Objects.checkIndex(moves, moves(game) + 1);
+            var position = games.get(game);
+            
+            var bits = new BitBoard(size);
+            var status = GameStatus.values()[buffer.get(position)];
+            var remaining_mines = buffer.getInt(position + 1);
+            position += 1 + Integer.BYTES;
+            for (var plane : new long[][] { bits.mines(), bits.revealed(), bits.flagged() }) {
+                buffer.slice(position, plane.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(plane);
+                position += plane.length * Long.BYTES;
+            }
+            bits.generateNumbers();
+            
+            var replay = new Engine(new GameState(status, bits.toBoard(), remaining_mines));
+            var width = size.width();
+            for (int i = 0; i < moves; i++) {
+                long entry = 0;
+                int shift = 0, b;
+                do {
+                    b = buffer.get(position++);
+                    entry |= (long) (b & 0x7f) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                
+                entry -= MOVE;
+                var index = (int) (entry >>> ACTION_BITS);
+                var x = index % width;
+                var y = index / width;
+                switch ((int) entry & ((1 << ACTION_BITS) - 1)) {
+                    case REVEAL -> replay.reveal(x, y);
+                    case CLEAR_AROUND -> replay.clearAround(x, y);
+                    case FLAG -> replay.setFlagged(x, y, true);
+                    case UNFLAG -> replay.setFlagged(x, y, false);
+                }
+            }
+            return replay.getGameState();
+        }
+    }
+}
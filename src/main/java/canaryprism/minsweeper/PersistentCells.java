@@ -0,0 +1,372 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/// Packed cell codes stored in a persistent trie so [#fork()] doesn't copy anything
+///
+/// Cells live in leaves of [#LEAF_SIZE] bytes which hang off nodes of [#NODE_SIZE] children.
+/// Every leaf and node remembers which edit token made it,
+/// and [#set(int, byte)] copies a leaf or node (and the path to it) only if it doesn't own it yet.
+/// [#fork()] just hands both sides fresh tokens so from then on neither of them owns anything they share,
+/// which makes a fork O(1) and a write O(depth) the first time a leaf is touched and O(1) after that
+///
+/// A trie can also sit on top of a [Base], cells stored somewhere other than the trie like a mapped file,
+/// or not stored at all and generated as they are read.
+/// Leaves that were never written to are the [#BASE] placeholder and are read straight from the base,
+/// writing to one copies just that leaf onto the heap, unless this trie made the base and was never forked,
+/// in which case it writes straight to the base
+///
+/// @see CellCodes
+final class PersistentCells {
+    
+    static final int LEAF_BITS = 9;
+    static final int LEAF_SIZE = 1 << LEAF_BITS;
+    static final int LEAF_MASK = LEAF_SIZE - 1;
+    
+    static final int NODE_BITS = 6;
+    static final int NODE_SIZE = 1 << NODE_BITS;
+    static final int NODE_MASK = NODE_SIZE - 1;
+    
+    private static final class Node {
+        final Object edit;
+        final Object[] children;
+        
+        Node(Object edit, Object[] children) {
+            this.edit = edit;
+            this.children = children;
+        }
+    }
+    
+    /// Cells that aren't stored in the trie
+    ///
+    /// a leaf is read from the base a whole leaf at a time when it's first written to,
+    /// and only ever written to if the trie was told it can
+    abstract static sealed class Base permits Mapped, GeneratedBase, BoardCorpus.View {
+        
+        abstract byte get(int index);
+        
+        abstract void put(int index, byte code);
+        
+        abstract void get(int index, byte[] destination, int length);
+    }
+    
+    /// Cells stored outside the heap, like in a memory mapped file
+    ///
+    /// split into chunks of [#CHUNK_SIZE] since a buffer can't be bigger than 2GB,
+    /// a leaf is never split between chunks
+    static final class Mapped extends Base {
+        
+        static final int CHUNK_BITS = 30;
+        static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+        static final int CHUNK_MASK = CHUNK_SIZE - 1;
+        
+        private final ByteBuffer[] chunks;
+        
+        Mapped(ByteBuffer[] chunks) {
+            this.chunks = chunks;
+        }
+        
+        @Override
+        byte get(int index) {
+            return chunks[index >>> CHUNK_BITS].get(index & CHUNK_MASK);
+        }
+        
+        @Override
+        void put(int index, byte code) {
+            chunks[index >>> CHUNK_BITS].put(index & CHUNK_MASK, code);
+        }
+        
+        @Override
+        void get(int index, byte[] destination, int length) {
+            chunks[index >>> CHUNK_BITS].get(index & CHUNK_MASK, destination, 0, length);
+        }
+    }
+    
+    private static final class Leaf {
+        final Object edit;
+        final byte[] cells;
+        
+        Leaf(Object edit, byte[] cells) {
+            this.edit = edit;
+            this.cells = cells;
+        }
+    }
+    
+    /// stands in for a leaf whose cells are all still in the [Base]
+    private static final Leaf BASE = new Leaf(null, null);
+    
+    private final int length;
+    /// the amount of [Node] levels above the leaves
+    private final int depth;
+    
+    private Object root;
+    private Object edit = new Object();
+    
+    private final Base base;
+    /// what to put codes from the base through when reading them, or `null` to read them as is
+    private byte[] base_mapper;
+    /// the edit token that's allowed to write straight to the base
+    private Object base_edit;
+    
+    /// the last leaf written to, which is definitely owned, so writes to the same leaf can skip the walk
+    private int owned_base = -1;
+    private byte[] owned_leaf;
+    
+    private PersistentCells(int length, int depth, Object root, Base base, byte[] base_mapper) {
+        this.length = length;
+        this.depth = depth;
+        this.root = root;
+        this.base = base;
+        this.base_mapper = base_mapper;
+    }
+    
+    /// Makes a trie of `length` cells all set to `fill`
+    ///
+    /// Every leaf and every node on the same level is the same shared instance,
+    /// so this is O(depth) no matter how long the trie is
+    ///
+    /// @param length the amount of cells
+    /// @param fill the code to fill with
+    /// @return the trie
+    static PersistentCells filled(int length, byte fill) {
+        var leaf_cells = new byte[LEAF_SIZE];
+        Arrays.fill(leaf_cells, fill);
+        Object root = new Leaf(null, leaf_cells);
+        
+        var depth = 0;
+        for (long capacity = LEAF_SIZE; capacity < length; capacity <<= NODE_BITS) {
+            var children = new Object[NODE_SIZE];
+            Arrays.fill(children, root);
+            root = new Node(null, children);
+            depth++;
+        }
+        
+        return new PersistentCells(length, depth, root, null, null);
+    }
+    
+    /// Makes a trie that reads every cell from `base` until it's written to
+    ///
+    /// This is O(depth) just like [#filled(int, byte)], nothing is read from the base until it's needed
+    ///
+    /// @param length the amount of cells
+    /// @param base the cells
+    /// @param writable whether the trie may write to `base` for as long as it isn't forked
+    /// @return the trie
+    static PersistentCells backed(int length, Base base, boolean writable) {
+        Object root = BASE;
+        var depth = 0;
+        for (long capacity = LEAF_SIZE; capacity < length; capacity <<= NODE_BITS) {
+            var children = new Object[NODE_SIZE];
+            Arrays.fill(children, root);
+            root = new Node(null, children);
+            depth++;
+        }
+        
+        var cells = new PersistentCells(length, depth, root, base, null);
+        if (writable)
+            cells.base_edit = cells.edit;
+        return cells;
+    }
+    
+    /// Makes a trie holding a copy of `codes`
+    ///
+    /// @param codes the codes of every cell
+    /// @return the trie
+    static PersistentCells of(byte[] codes) {
+        var level = new Object[Math.max(1, (codes.length + LEAF_MASK) >>> LEAF_BITS)];
+        for (int i = 0; i < level.length; i++)
+            level[i] = new Leaf(null, Arrays.copyOfRange(codes, i << LEAF_BITS, (i + 1) << LEAF_BITS));
+        
+        // the last node on each level might not be full, the rest of it points at shared padding
+        Object padding = new Leaf(null, new byte[LEAF_SIZE]);
+        var depth = 0;
+        while (level.length > 1) {
+            var parents = new Object[(level.length + NODE_MASK) >>> NODE_BITS];
+            for (int i = 0; i < parents.length; i++) {
+                var children = new Object[NODE_SIZE];
+                Arrays.fill(children, padding);
+                System.arraycopy(level, i << NODE_BITS, children, 0, Math.min(NODE_SIZE, level.length - (i << NODE_BITS)));
+                parents[i] = new Node(null, children);
+            }
+            var padding_children = new Object[NODE_SIZE];
+            Arrays.fill(padding_children, padding);
+            padding = new Node(null, padding_children);
+            level = parents;
+            depth++;
+        }
+        
+        return new PersistentCells(codes.length, depth, level[0], null, null);
+    }
+    
+    int length() {
+        return length;
+    }
+    
+    byte get(int index) {
+        var leaf = leaf(index);
+        return (leaf != null) ? leaf[index & LEAF_MASK] : baseGet(index);
+    }
+    
+    private byte baseGet(int index) {
+        var code = base.get(index);
+        return (base_mapper != null) ? base_mapper[code] : code;
+    }
+    
+    /// Copies the leaf starting at `start` into `destination`
+    ///
+    /// @param start the index of the first cell of the leaf, a multiple of [#LEAF_SIZE]
+    /// @param destination where to copy to, at least [#LEAF_SIZE] long
+    void copyLeaf(int start, byte[] destination) {
+        var leaf = leaf(start);
+        if (leaf != null)
+            System.arraycopy(leaf, 0, destination, 0, LEAF_SIZE);
+        else
+            baseLeaf(start, destination);
+    }
+    
+    private void baseLeaf(int start, byte[] destination) {
+        var count = Math.min(LEAF_SIZE, length - start);
+        base.get(start, destination, count);
+        if (base_mapper != null)
+            for (int i = 0; i < count; i++)
+                destination[i] = base_mapper[destination[i]];
+    }
+    
+    // each level falls through to the one below it
+    @SuppressWarnings("fallthrough")
+    private byte[] leaf(int index) {
+        // unrolled because the jit does a lot better with constant shifts than with a loop over the levels,
+        // an int index never needs more than 4 levels
+        var node = root;
+        switch (depth) {
+            case 4: node = ((Node) node).children[(index >>> (LEAF_BITS + 3 * NODE_BITS)) & NODE_MASK];
+            case 3: node = ((Node) node).children[(index >>> (LEAF_BITS + 2 * NODE_BITS)) & NODE_MASK];
+            case 2: node = ((Node) node).children[(index >>> (LEAF_BITS + NODE_BITS)) & NODE_MASK];
+            case 1: node = ((Node) node).children[(index >>> LEAF_BITS) & NODE_MASK];
+            default: return ((Leaf) node).cells;
+        }
+    }
+    
+    void set(int index, byte code) {
+        if ((index & ~LEAF_MASK) == owned_base) {
+            owned_leaf[index & LEAF_MASK] = code;
+            return;
+        }
+        if (get(index) == code)
+            return;
+        if (base_edit == edit && leaf(index) == null) {
+            base.put(index, code);
+            return;
+        }
+        
+        // only store references that actually changed, reference stores aren't free with gc barriers
+        var node = owned(root, index);
+        if (node != root)
+            root = node;
+        for (int shift = LEAF_BITS + (depth - 1) * NODE_BITS; shift >= LEAF_BITS; shift -= NODE_BITS) {
+            var children = ((Node) node).children;
+            var i = (index >>> shift) & NODE_MASK;
+            var child = children[i];
+            node = owned(child, index);
+            if (node != child)
+                children[i] = node;
+        }
+        owned_base = index & ~LEAF_MASK;
+        owned_leaf = ((Leaf) node).cells;
+        owned_leaf[index & LEAF_MASK] = code;
+    }
+    
+    private Object owned(Object node, int index) {
+        // not a pattern switch because this is hot and those go through an indy type switch
+        if (node instanceof Node n)
+            return (n.edit == edit) ? n : new Node(edit, n.children.clone());
+        var leaf = (Leaf) node;
+        if (leaf.edit == edit)
+            return leaf;
+        if (leaf.cells != null)
+            return new Leaf(edit, leaf.cells.clone());
+        var cells = new byte[LEAF_SIZE];
+        baseLeaf(index & ~LEAF_MASK, cells);
+        return new Leaf(edit, cells);
+    }
+    
+    /// Makes a copy of this trie that shares all of its storage
+    ///
+    /// both this and the copy stop owning any of the shared leaves and nodes,
+    /// so whichever is written to next copies what it touches and the other one doesn't see it
+    ///
+    /// @return the copy
+    PersistentCells fork() {
+        this.edit = new Object();
+        this.owned_base = -1;
+        this.owned_leaf = null;
+        return new PersistentCells(length, depth, root, base, base_mapper);
+    }
+    
+    /// Makes a new trie of the same length with every code put through `mapper`
+    ///
+    /// Leaves that come out the same are shared with this trie instead of being copied
+    ///
+    /// @param mapper table from each code to its new code, indexed by code
+    /// @return the mapped trie
+    PersistentCells map(byte[] mapper) {
+        var fork = fork();
+        fork.root = fork.map(root, mapper);
+        if (base != null) {
+            // the base can't be mapped without reading all of it, so map it as it's read instead
+            var base_mapper = new byte[mapper.length];
+            for (int code = 0; code < mapper.length; code++)
+                base_mapper[code] = mapper[(this.base_mapper != null) ? this.base_mapper[code] : code];
+            fork.base_mapper = base_mapper;
+        }
+        return fork;
+    }
+    
+    private Object map(Object node, byte[] mapper) {
+        if (node instanceof Node n) {
+            Object[] children = null;
+            // lots of siblings are the same instance, especially in a freshly filled trie
+            Object last = null, last_mapped = null;
+            for (int i = 0; i < NODE_SIZE; i++) {
+                var child = n.children[i];
+                var mapped = (child == last) ? last_mapped : map(child, mapper);
+                last = child;
+                last_mapped = mapped;
+                if (mapped != child && children == null)
+                    children = n.children.clone();
+                if (children != null)
+                    children[i] = mapped;
+            }
+            return (children == null) ? node : new Node(edit, children);
+        }
+        var cells = ((Leaf) node).cells;
+        if (cells == null)
+            return node;
+        byte[] mapped_cells = null;
+        for (int i = 0; i < LEAF_SIZE; i++) {
+            var mapped = mapper[cells[i]];
+            if (mapped != cells[i] && mapped_cells == null)
+                mapped_cells = cells.clone();
+            if (mapped_cells != null)
+                mapped_cells[i] = mapped;
+        }
+        return (mapped_cells == null) ? node : new Leaf(edit, mapped_cells);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+/// Seeds made from other seeds
+///
+/// A seed split off another one is a pure function of the two, so anything generated from split seeds
+/// comes out the same no matter what order, or on how many threads, it's generated in
+final class Seeds {
+    
+    private Seeds() {}
+    
+    /// Splits a seed off another one
+    ///
+    /// @param seed the seed to split from
+    /// @param index which split this is
+    /// @return the split seed
+    static long split(long seed, long index) {
+        return mix(seed ^ mix(index + 0x9e3779b97f4a7c15L));
+    }
+    
+    /// splitmix64's finaliser
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Solver;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/// Keeps boards that are already known to be solvable ready to play
+///
+/// [#add(BoardSize, Solver, int, int)] makes the pool start keeping up to its capacity of boards
+/// for a [BoardSize] that the [Solver] can win starting by revealing a given cell.
+/// Threads in the background keep generating boards to fill the pool back up as they're taken,
+/// at the lowest priority, and they stop whenever a game is generating a board itself because the pool ran out,
+/// so the game that someone is waiting on gets the processors to itself
+///
+/// Give the pool to a [MinsweeperGame] with [MinsweeperGame#setPool(SolvableBoardPool)]
+/// and its first reveal just takes a board from the pool if there's one for that cell.
+/// Boards are only ever given out once.
+///
+/// The pool always generates boards by [retrying][MinsweeperGame.Generation#RETRY],
+/// whatever [generation][MinsweeperGame#setGeneration(MinsweeperGame.Generation)] the game taking them is set to,
+/// and nothing about generating them is told to any [GenerationListener],
+/// a game's listener only hears that it took a [pooled][GenerationListener.Generated#pooled()] board
+///
+/// The [Solver]s are used from all the background threads at once so they have to be thread safe,
+/// and they're told apart by identity so the game has to be started with the same instance
+public final class SolvableBoardPool implements AutoCloseable {
+    
+    private final int capacity;
+    private final Thread[] threads;
+    
+    private record Key(BoardSize size, Solver solver, int x, int y) {}
+    
+    /// the boards for one [Key] and how they've been taken
+    private static final class Entry {
+        final Key key;
+        final ArrayBlockingQueue<GameState> boards;
+        
+        /// how many boards threads are currently generating for this
+        int pending;
+        
+        long hits, misses, refills, refill_nanos;
+        
+        Entry(Key key, int capacity) {
+            this.key = key;
+            this.boards = new ArrayBlockingQueue<>(capacity);
+        }
+        
+        Statistics statistics() {
+            return new Statistics(boards.size(), hits, misses, refills, Duration.ofNanos(refill_nanos));
+        }
+    }
+    
+    private final Map<Key, Entry> entries = new LinkedHashMap<>();
+    
+    /// how many games are generating boards themselves, the background threads wait while there are any
+    private int interactive;
+    private boolean closed;
+    
+    /// Statistics about how boards were taken from a pool
+    ///
+    /// @param available how many boards are in the pool right now
+    /// @param hits how many times a board was taken
+    /// @param misses how many times there wasn't a board to take
+    /// @param refills how many boards were generated in the background
+    /// @param refillTime how long generating those boards took in total, including all the unsolvable ones
+    public record Statistics(int available, long hits, long misses, long refills, Duration refillTime) {
+        
+        /// Gets how long generating a board in the background took on average
+        ///
+        /// @return the average time, or [Duration#ZERO] if there haven't been any
+        public Duration averageRefillTime() {
+            return (refills == 0) ? Duration.ZERO : refillTime.dividedBy(refills);
+        }
+    }
+    
+    /// Constructs a SolvableBoardPool
+    ///
+    /// @param capacity how many boards to keep for each start cell
+    /// @param threads how many threads generate boards in the background
+    /// @throws IllegalArgumentException if `capacity` or `threads` is less than 1
+    public SolvableBoardPool(int capacity, int threads) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1");
+        this.capacity = capacity;
+        this.threads = new Thread[threads];
+        var factory = Thread.ofPlatform()
+                .name("solvable-board-pool-", 0)
+                .daemon()
+                .priority(Thread.MIN_PRIORITY)
+                .factory();
+        for (int i = 0; i < threads; i++) {
+            this.threads[i] = factory.newThread(this::refill);
+            this.threads[i].start();
+        }
+    }
+    
+    /// Constructs a SolvableBoardPool that generates boards on all processors but one
+    ///
+    /// @param capacity how many boards to keep for each start cell
+    /// @throws IllegalArgumentException if `capacity` is less than 1
+    public SolvableBoardPool(int capacity) {
+        this(capacity, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+    
+    /// Starts keeping boards that `solver` can win after revealing `(x, y)` first
+    ///
+    /// Does nothing if the pool is already keeping them
+    ///
+    /// @param size the size of the boards
+    /// @param solver the solver
+    /// @param x the x coordinate of the first reveal
+    /// @param y the y coordinate of the first reveal
+    /// @throws IllegalArgumentException if `(x, y)` isn't on the board
+    /// @throws IllegalStateException if the pool is closed
+    public synchronized void add(BoardSize size, Solver solver, int x, int y) {
+        Objects.requireNonNull(size);
+        Objects.requireNonNull(solver);
+        if (!(x >= 0 && x < size.width() && y >= 0 && y < size.height()))
+            throw new IllegalArgumentException("(" + x + ", " + y + ") is not on the board");
+        if (closed)
+            throw new IllegalStateException("Pool is closed");
+        var key = new Key(size, solver, x, y);
+        if (!entries.containsKey(key)) {
+            entries.put(key, new Entry(key, capacity));
+            notifyAll();
+        }
+    }
+    
+    /// Takes a board from the pool
+    ///
+    /// The board is a game that's [PLAYING][GameStatus#PLAYING] with nothing revealed yet,
+    /// where revealing `(x, y)` lets `solver` win
+    ///
+    /// @param size the size of the board
+    /// @param solver the solver
+    /// @param x the x coordinate of the first reveal
+    /// @param y the y coordinate of the first reveal
+    /// @return the game, or empty if the pool doesn't have one
+    public Optional<GameState> poll(BoardSize size, Solver solver, int x, int y) {
+        return Optional.ofNullable(take(new Key(size, solver, x, y)));
+    }
+    
+    private GameState take(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null)
+            return null;
+        var state = entry.boards.poll();
+        synchronized (this) {
+            if (state == null) {
+                entry.misses++;
+            } else {
+                entry.hits++;
+                notifyAll();
+            }
+        }
+        return state;
+    }
+    
+    /// Takes a board from the pool, or generates one with `generate` if there isn't one
+    ///
+    /// The background threads wait while `generate` is running
+    GameState take(BoardSize size, Solver solver, int x, int y, Supplier<GameState> generate) {
+        var state = take(new Key(size, solver, x, y));
+        if (state != null)
+            return state;
+        synchronized (this) {
+            interactive++;
+        }
+        try {
+            return generate.get();
+        } finally {
+            synchronized (this) {
+                interactive--;
+                notifyAll();
+            }
+        }
+    }
+    
+    /// Gets statistics about the boards for a start cell
+    ///
+    /// @param size the size of the boards
+    /// @param solver the solver
+    /// @param x the x coordinate of the first reveal
+    /// @param y the y coordinate of the first reveal
+    /// @return the statistics, or empty if the pool isn't keeping those boards
+    public synchronized Optional<Statistics> getStatistics(BoardSize size, Solver solver, int x, int y) {
+        return Optional.ofNullable(entries.get(new Key(size, solver, x, y))).map(Entry::statistics);
+    }
+    
+    /// Gets statistics about all the boards in the pool added together
+    ///
+    /// @return the statistics
+    public synchronized Statistics getStatistics() {
+        int available = 0;
+        long hits = 0, misses = 0, refills = 0, refill_nanos = 0;
+        for (var entry : entries.values()) {
+            available += entry.boards.size();
+            hits += entry.hits;
+            misses += entry.misses;
+            refills += entry.refills;
+            refill_nanos += entry.refill_nanos;
+        }
+        return new Statistics(available, hits, misses, refills, Duration.ofNanos(refill_nanos));
+    }
+    
+    /// Stops generating boards
+    ///
+    /// Boards already in the pool can still be taken.
+    /// Background threads finish the board they're trying first, so they may take a moment to stop
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+    
+    /// the entry with the fewest boards that isn't full, counting boards that are still being generated
+    private Entry emptiest() {
+        Entry emptiest = null;
+        for (var entry : entries.values()) {
+            var boards = entry.boards.size() + entry.pending;
+            if (boards < capacity && (emptiest == null || boards < emptiest.boards.size() + emptiest.pending))
+                emptiest = entry;
+        }
+        return emptiest;
+    }
+    
+    private void refill() {
+        try {
+            while (true) {
+                Entry entry;
+                synchronized (this) {
+                    while (!closed && (interactive > 0 || emptiest() == null))
+                        wait();
+                    if (closed)
+                        return;
+                    entry = emptiest();
+                    entry.pending++;
+                }
+                try {
+                    var key = entry.key;
+                    var start = System.nanoTime();
+                    GameState state = null;
+                    while (state == null && !paused())
+                        state = MinsweeperGame.solvable(key.size, key.solver, key.x, key.y,
+                                ThreadLocalRandom.current().nextLong());
+                    if (state != null) {
+                        var nanos = System.nanoTime() - start;
+                        entry.boards.add(state);
+                        synchronized (this) {
+                            entry.refills++;
+                            entry.refill_nanos += nanos;
+                        }
+                    }
+                } finally {
+                    synchronized (this) {
+                        entry.pending--;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // the thread was interrupted from outside the pool, there's no one to tell
+        }
+    }
+    
+    private synchronized boolean paused() {
+        return closed || interactive > 0;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper.event;
+
+import jdk.jfr.*;
+
+/// Flight recorder event for a solver trying every way mines could be placed on the frontier
+///
+/// Happens inside a [SolveEvent] on the same thread, so the two can be lined up
+///
+/// This package isn't exported, it's only here so the events show up in recordings
+@Name("canaryprism.minsweeper.BruteForce")
+@Label("Brute Force")
+@Category({ "Minsweeper", "Solver" })
+@Description("A solver brute forcing the mines on the frontier")
+@StackTrace(false)
+public final class BruteForceEvent extends Event {
+    
+    @Label("Solver")
+    public String solver;
+    
+    @Label("Frontier Size")
+    @Description("How many unknown cells were brute forced")
+    public int frontierSize;
+    
+    @Label("Numbers")
+    @Description("How many revealed numbers the placements had to satisfy")
+    public int numbers;
+    
+    @Label("States")
+    @Description("How many placements satisfied every number")
+    public int states;
+}
@@ -0,0 +1,69 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper.event;
+
+import jdk.jfr.*;
+
+/// Flight recorder event for one board tried while looking for a board a solver can win
+///
+/// The parts are only timed for boards generated by retrying,
+/// other ways of generating leave them 0 and count everything as solving
+///
+/// This package isn't exported, it's only here so the events show up in recordings
+@Name("canaryprism.minsweeper.GenerationAttempt")
+@Label("Generation Attempt")
+@Category({ "Minsweeper", "Generation" })
+@Description("A board tried while looking for one a solver can win")
+@StackTrace(false)
+public final class GenerationAttemptEvent extends Event {
+    
+    @Label("Width")
+    public int width;
+    
+    @Label("Height")
+    public int height;
+    
+    @Label("Mines")
+    public int mines;
+    
+    @Label("Solver")
+    public String solver;
+    
+    @Label("Generation")
+    public String generation;
+    
+    @Label("Accepted")
+    @Description("Whether the solver could win the board")
+    public boolean accepted;
+    
+    @Label("Placement")
+    @Timespan
+    public long placement;
+    
+    @Label("Numbering")
+    @Timespan
+    public long numbering;
+    
+    @Label("Hiding")
+    @Timespan
+    public long hiding;
+    
+    @Label("Solving")
+    @Timespan
+    public long solving;
+}
@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper.event;
+
+import jdk.jfr.*;
+
+/// Flight recorder event for a move made on a board
+///
+/// Committed by [canaryprism.minsweeper.AbstractMinsweeper] for every
+/// [reveal][canaryprism.minsweeper.Minsweeper#reveal(int, int)],
+/// [clear around][canaryprism.minsweeper.Minsweeper#clearAround(int, int)]
+/// and [flag][canaryprism.minsweeper.Minsweeper#setFlagged(int, int, boolean)],
+/// including ones that didn't do anything
+///
+/// This package isn't exported, it's only here so the events show up in recordings
+@Name("canaryprism.minsweeper.Move")
+@Label("Move")
+@Category({ "Minsweeper", "Engine" })
+@Description("A move made on a board")
+@StackTrace(false)
+public final class MoveEvent extends Event {
+    
+    /// revealed
+    public static final String REVEAL = "reveal";
+    /// cleared around
+    public static final String CLEAR_AROUND = "clear around";
+    /// flagged or unflagged
+    public static final String FLAG = "flag";
+    
+    @Label("Action")
+    public String action;
+    
+    @Label("X")
+    public int x;
+    
+    @Label("Y")
+    public int y;
+    
+    @Label("Cells Changed")
+    @Description("How many cells the move changed")
+    public int cellsChanged;
+    
+    @Label("Flood Size")
+    @Description("How many cells were revealed by flooding out from empty cells")
+    public int floodSize;
+    
+    @Label("Status")
+    @Description("The status of the game after the move")
+    public String status;
+}
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper.event;
+
+import canaryprism.minsweeper.CellState;
+import canaryprism.minsweeper.CellType;
+import canaryprism.minsweeper.GameState;
+import canaryprism.minsweeper.solver.Move;
+import canaryprism.minsweeper.solver.Solver;
+import jdk.jfr.*;
+
+/// Flight recorder event for one call to [Solver#solve(GameState)]
+///
+/// The frontier is only counted when the event is actually going to be recorded,
+/// and after the event has ended so it isn't counted in the duration
+///
+/// This package isn't exported, it's only here so the events show up in recordings
+@Name("canaryprism.minsweeper.Solve")
+@Label("Solve")
+@Category({ "Minsweeper", "Solver" })
+@Description("A solver working out a move")
+@StackTrace(false)
+public final class SolveEvent extends Event {
+    
+    @Label("Solver")
+    public String solver;
+    
+    @Label("Logic")
+    @Description("The logic the move was worked out with, or null if the solver couldn't find a move")
+    public String logic;
+    
+    @Label("Clicks")
+    @Description("How many clicks the move has")
+    public int clicks;
+    
+    @Label("Frontier Size")
+    @Description("How many unknown cells border a revealed number")
+    public int frontierSize;
+    
+    /// Asks a solver for a move, recording it if this event is enabled
+    ///
+    /// @param solver the solver
+    /// @param state the state to solve
+    /// @return the move the solver made, or `null` if it couldn't find one
+    public static Move solve(Solver solver, GameState state) {
+        var event = new SolveEvent();
+        event.begin();
+        var move = solver.solve(state);
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = solver.getName();
+            if (move != null) {
+                event.logic = move.reason().map((reason) -> String.valueOf(reason.logic())).orElse(null);
+                event.clicks = move.clicks().size();
+            }
+            event.frontierSize = frontier(state);
+            event.commit();
+        }
+        return move;
+    }
+    
+    private static int frontier(GameState state) {
+        var board = state.board();
+        var size = board.getSize();
+        var count = 0;
+        for (int y = 0; y < size.height(); y++)
+            for (int x = 0; x < size.width(); x++)
+                if (board.getState(x, y) == CellState.UNKNOWN && bordersNumber(state, x, y))
+                    count++;
+        return count;
+    }
+    
+    private static boolean bordersNumber(GameState state, int x, int y) {
+        var board = state.board();
+        var size = board.getSize();
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(size.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(size.width() - 1, x + 1); x2++)
+                if (board.getState(x2, y2) == CellState.REVEALED
+                        && board.getType(x2, y2) instanceof CellType.Safe(var number) && number > 0)
+                    return true;
+        return false;
+    }
+}
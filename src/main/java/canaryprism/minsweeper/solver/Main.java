@@ -14,112 +14,211 @@
  *    limitations under the License.
  */
 
+
 package canaryprism.minsweeper.solver;
 
-import canaryprism.minsweeper.*;
-import canaryprism.minsweeper.solver.impl.mia.MiaSolver;
-import canaryprism.minsweeper.solver.impl.start.ZeroStart;
+import canaryprism.minsweeper.BoardSize;
+import canaryprism.minsweeper.ConventionalSize;
 
-import java.util.ArrayList;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
 
+/// Runs a [Tournament] between the [Solver]s from the command line
+///
+/// Every Solver found with [ServiceLoader] plays the same seeded boards
+/// and how each one did is printed as a table, and written as JSON or CSV if asked.
+/// Given the CSV of an earlier run with `--baseline`, it also prints how each Solver changed since then
 class Main {
     
-    public static void main(String[] args) {
-//        mrrp();
-//        System.exit(0);
-        System.out.println("mewo");
-        var start = System.nanoTime();
-        var solver = new MiaSolver();
-        var generator = new ZeroStart();
-        final var total = 1000;
-        var successes = new AtomicInteger();
-        var losses = new AtomicInteger();
+    private static final String USAGE = """
+            usage: Main [options]
+              --size <size>          beginner, intermediate, expert or <width>x<height>x<mines> (default expert)
+              --games <n>            how many games each solver plays (default 1000)
+              --warmup <n>           how many games each solver plays before it's measured (default 50)
+              --seed <n>             the seed the boards are made from (default 0)
+              --threads <n>          how many games are played at once (default the number of processors)
+              --solvers <a,b,...>    which solvers play, by class name or simple class name (default all of them)
+              --json <file>          write the results as JSON, - for standard output
+              --csv <file>           write the results as CSV, - for standard output
+              --baseline <file>      CSV results of an earlier run to compare against
+            """;
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
         var size = ConventionalSize.EXPERT.size;
+        var games = 1000;
+        var warmup = 50;
+        var seed = 0L;
+        var threads = Runtime.getRuntime().availableProcessors();
+        List<String> names = null;
+        String json = null, csv = null;
+        Path baseline = null;
         
-        try (var pool = new ForkJoinPool(ForkJoinPool.getCommonPoolParallelism())) {
-            for (int i = 0; i < total; i++) {
-                pool.execute(ForkJoinTask.adapt(() -> {
-                    var game = new MinsweeperGame(size);
-                    game.start(generator);
-                    game.leftClick(size.width() / 2, size.height() / 2);
-                    
-                    var result = solver.solve(game);
-                    
-                    if (result == Solver.Result.WON)
-                        successes.incrementAndGet();
-                    else if (result == Solver.Result.LOST)
-                        losses.incrementAndGet();
-                }));
+        try {
+            for (int i = 0; i < args.length; i++) {
+                var option = args[i];
+                if (option.equals("--help")) {
+                    System.out.print(USAGE);
+                    return;
+                }
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("missing value for " + option);
+                var value = args[++i];
+                switch (option) {
+                    case "--size" -> size = parseSize(value);
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--warmup" -> warmup = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--solvers" -> names = List.of(value.split(","));
+                    case "--json" -> json = value;
+                    case "--csv" -> csv = value;
+                    case "--baseline" -> baseline = Path.of(value);
+                    default -> throw new IllegalArgumentException("unknown option " + option);
+                }
             }
+            
+            var tournament = new Tournament(size, seed, games, threads);
+            var solvers = solvers(names);
+            // keep standard output clean if the results are going there
+            var out = ("-".equals(json) || "-".equals(csv)) ? System.err : System.out;
+            var previous = (baseline != null) ? Tournament.readCsv(baseline) : null;
+            
+            out.printf("%d games of %dx%d with %d mines, seed %d, %d threads%n%n",
+                    games, size.width(), size.height(), size.mines(), seed, threads);
+            
+            List<Tournament.Result> results;
+            try (var executor = Executors.newFixedThreadPool(threads)) {
+                // so the solvers are measured after the JIT has gotten to them,
+                // on boards from a different seed so none of the measured boards have been played already
+                if (warmup > 0)
+                    new Tournament(size, new SplittableRandom(seed).nextLong(), warmup, threads).run(solvers, executor);
+                results = tournament.run(solvers, executor);
+            }
+            
+            printTable(results, out);
+            if (previous != null)
+                printComparison(results, previous, out);
+            
+            if (json != null)
+                write(json, (writer) -> Tournament.writeJson(results, writer));
+            if (csv != null)
+                write(csv, (writer) -> Tournament.writeCsv(results, writer));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
         }
-        
-        
-        
-        System.out.printf("%8d successes\n", successes.get());
-        System.out.printf("%8d losses\n", losses.get());
-        System.out.printf("%8d total\n", total);
-        System.out.printf("%10d time elapsed", System.nanoTime() - start);
     }
     
-    private static void mrrp() {
-        System.out.println("mewo");
-        var generator = new MiaSolver();
-        final var total = 200;
-        var size = ConventionalSize.EXPERT.size;
-        var counter = new AtomicInteger();
-        
-        var times = new ConcurrentLinkedDeque<Long>();
-        
-        try (var pool = new ForkJoinPool(ForkJoinPool.getCommonPoolParallelism())) {
-            for (int i = 0; i < total; i++) {
-                var start = System.nanoTime();
-                var game = new MinsweeperGame(size);
-                game.start(generator);
-                game.leftClick(size.width() / 2, size.height() / 2);
-                var elapsed = System.nanoTime() - start;
-                times.add(elapsed);
-                System.out.printf("%4d / %d, %4f\n", counter.incrementAndGet(), total, elapsed / 1_000_000_000.d);
-//                pool.execute(ForkJoinTask.adapt(() -> {
-//                }));
-            }
+    private static BoardSize parseSize(String value) {
+        for (var size : ConventionalSize.values())
+            if (size.name().equalsIgnoreCase(value))
+                return size.size;
+        var parts = value.split("x");
+        if (parts.length != 3)
+            throw new IllegalArgumentException("invalid size " + value);
+        return new BoardSize(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+    
+    private static List<ServiceLoader.Provider<Solver>> solvers(List<String> names) {
+        var all = ServiceLoader.load(Solver.class).stream().toList();
+        if (names == null)
+            return all;
+        var solvers = new ArrayList<ServiceLoader.Provider<Solver>>();
+        for (var name : names) {
+            solvers.add(all.stream()
+                    .filter((provider) -> provider.type().getName().equals(name)
+                            || provider.type().getSimpleName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("no solver called " + name)));
         }
-        
-        
-        
-        System.out.printf("%8d total\n", total);
-        System.out.printf("%8.5f average delay", times.stream().mapToLong(Long::intValue).average().orElse(0) / 1_000_000_000);
+        return solvers;
     }
     
-    private static void mewo() {
-        var solver = new MiaSolver();
-        var size = new BoardSize(5, 4, 4);
-        var board = new Board(size);
-        board.clear();
-        board.add(parse(' ', '1', 'O', 'O', 'O'));
-        board.add(parse('1', '2', 'O', 'O', 'O'));
-        board.add(parse('1', '!', '3', '!', '!'));
-        board.add(parse('1', '1', '2', '2', '2'));
-        var state = new GameState(GameStatus.PLAYING, board, 1);
-        board.forEach(System.out::println);
-        
-        var move = solver.solve(state);
-        System.out.println(move);
+    @FunctionalInterface
+    private interface Writing {
+        void write(Appendable writer) throws IOException;
+    }
+    
+    private static void write(String file, Writing writing) throws IOException {
+        if (file.equals("-")) {
+            writing.write(System.out);
+            System.out.flush();
+            return;
+        }
+        try (var writer = Files.newBufferedWriter(Path.of(file))) {
+            writing.write(writer);
+        }
+    }
+    
+    /// how wide the solver column has to be to fit every name
+    private static int width(List<Tournament.Result> results) {
+        return results.stream().mapToInt((result) -> result.solver().length()).max().orElse(0);
     }
-    private static ArrayList<Cell> parse(char... chars) {
-        var list = new ArrayList<Cell>();
-        for (var e : chars) {
-            if ('1' <= e && e <= '8')
-                list.add(new Cell(new CellType.Safe(e - '0'), CellState.REVEALED));
-            switch (e) {
-                case '!' -> list.add(new Cell(CellType.UNKNOWN, CellState.FLAGGED));
-                case ' ' -> list.add(new Cell(CellType.Safe.EMPTY, CellState.REVEALED));
-                case 'O' -> list.add(new Cell(CellType.UNKNOWN, CellState.UNKNOWN));
+    
+    private static void printTable(List<Tournament.Result> results, PrintStream out) {
+        var width = width(results);
+        out.printf("%-" + width + "s %6s %6s %6s %9s %9s %9s %9s %9s %9s %9s%n", "solver", "won", "lost", "resign",
+                "games/s", "move p50", "move p99", "move max", "game p50", "game p99", "game max");
+        for (var result : results) {
+            out.printf("%-" + width + "s %5.1f%% %5.1f%% %5.1f%% %9.1f %9s %9s %9s %9s %9s %9s%n",
+                    result.solver(),
+                    100.0 * result.won() / result.games(),
+                    100.0 * result.lost() / result.games(),
+                    100.0 * result.resigned() / result.games(),
+                    result.gamesPerSecond(),
+                    duration(result.move().p50()),
+                    duration(result.move().p99()),
+                    duration(result.move().max()),
+                    duration(result.game().p50()),
+                    duration(result.game().p99()),
+                    duration(result.game().max()));
+        }
+    }
+    
+    private static void printComparison(List<Tournament.Result> results, List<Tournament.Result> baseline, PrintStream out) {
+        var width = width(results);
+        out.printf("%nchanges since the baseline%n");
+        out.printf("%-" + width + "s %9s %9s %9s %9s %9s %9s%n", "solver",
+                "win rate", "games/s", "move p50", "move p99", "game p50", "game p99");
+        for (var result : results) {
+            var before = baseline.stream()
+                    .filter((previous) -> previous.type().equals(result.type()))
+                    .findFirst();
+            if (before.isEmpty()) {
+                out.printf("%-" + width + "s not in the baseline%n", result.solver());
+                continue;
             }
+            var previous = before.get();
+            out.printf("%-" + width + "s %+8.1f%% %9s %9s %9s %9s %9s%s%n",
+                    result.solver(),
+                    100 * (result.winRate() - previous.winRate()),
+                    change(previous.gamesPerSecond(), result.gamesPerSecond()),
+                    change(previous.move().p50(), result.move().p50()),
+                    change(previous.move().p99(), result.move().p99()),
+                    change(previous.game().p50(), result.game().p50()),
+                    change(previous.game().p99(), result.game().p99()),
+                    // comparing different boards doesn't say much
+                    (previous.size().equals(result.size()) && previous.seed() == result.seed()
+                            && previous.games() == result.games()) ? "" : "  (different boards)");
         }
-        return list;
+    }
+    
+    private static String change(double before, double after) {
+        if (before == 0)
+            return (after == 0) ? "+0.0%" : "new";
+        return String.format("%+.1f%%", 100 * (after - before) / before);
+    }
+    
+    private static String duration(long nanos) {
+        if (nanos < 1_000_000)
+            return String.format("%.1fus", nanos / 1e3);
+        if (nanos < 1_000_000_000)
+            return String.format("%.2fms", nanos / 1e6);
+        return String.format("%.2fs", nanos / 1e9);
     }
 }
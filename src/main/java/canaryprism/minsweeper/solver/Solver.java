@@ -20,6 +20,7 @@ import canaryprism.minsweeper.GameState;
 import canaryprism.minsweeper.GameStatus;
 import canaryprism.minsweeper.Minsweeper;
 import canaryprism.minsweeper.MinsweeperGame;
+import canaryprism.minsweeper.event.SolveEvent;
 import canaryprism.minsweeper.solver.impl.mia.MiaSolver;
 import org.jetbrains.annotations.Nullable;
 
@@ -64,7 +65,7 @@ public interface Solver {
     default Result solve(Minsweeper minsweeper) {
         var state = minsweeper.getGameState();
         while (state.status() == GameStatus.PLAYING) {
-            var move = solve(state);
+            var move = SolveEvent.solve(this, state);
             if (move instanceof Move(var clicks, var ignored))
                 for (var click : clicks)
                     switch (click.action()) {
@@ -82,6 +83,18 @@ public interface Solver {
         };
     }
     
+    /// Gets how far around the first reveal a board has to be free of mines for this Solver to be able to win it
+    ///
+    /// [MinsweeperGame#start(Solver)] places mines away from those cells to begin with
+    /// instead of trying boards that could never be won,
+    /// so a Solver that only cares about the first reveal is done in one try
+    ///
+    /// @return how far from the first reveal there can't be mines, or -1 if there's nowhere
+    /// @implSpec the default implementation returns 0, since revealing a mine loses the game straight away
+    default int getSafeRadius() {
+        return 0;
+    }
+    
     /// Gets the name of the [Solver]
     ///
     /// @return the name of the Solver
@@ -0,0 +1,371 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper.solver;
+
+import canaryprism.minsweeper.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/// Plays the same seeded boards with a bunch of [Solver]s and measures how well and how fast each one does
+///
+/// Every board has a clear first reveal in the middle so every Solver gets to play all of them,
+/// the first reveal is made for the Solver and the rest of the game is [Solver#solve(GameState)] one move at a time.
+/// The Solvers go one after another, each one playing all the games split between the workers,
+/// and each worker gets its own instance of the Solver
+final class Tournament {
+    
+    /// the CSV header of [#writeCsv(List, Appendable)]
+    static final String CSV_HEADER = "solver,class,width,height,mines,seed,games,won,lost,resigned,moves,seconds,"
+            + "move_p50_ns,move_p99_ns,move_max_ns,game_p50_ns,game_p99_ns,game_max_ns";
+    
+    private final BoardSize size;
+    private final long seed;
+    private final int games;
+    private final int workers;
+    
+    /// the seeds of the boards played, so every Solver plays the exact same ones
+    private final long[] seeds;
+    
+    /// @param size the size of the boards
+    /// @param seed the seed the boards' seeds are drawn from
+    /// @param games how many games each Solver plays
+    /// @param workers how many games are played at once
+    /// @throws IllegalArgumentException if `games` or `workers` is less than 1
+    Tournament(BoardSize size, long seed, int games, int workers) {
+        if (games < 1)
+            throw new IllegalArgumentException("games must be at least 1");
+        if (workers < 1)
+            throw new IllegalArgumentException("workers must be at least 1");
+        this.size = size;
+        this.seed = seed;
+        this.games = games;
+        this.workers = workers;
+        this.seeds = new SplittableRandom(seed).longs(games).toArray();
+    }
+    
+    /// How a Solver did
+    ///
+    /// @param solver the [name][Solver#getName()] of the Solver
+    /// @param type the Solver's class
+    /// @param size the size of the boards
+    /// @param seed the seed the boards' seeds were drawn from
+    /// @param games how many games were played
+    /// @param won how many were won
+    /// @param lost how many were lost
+    /// @param resigned how many the Solver gave up on
+    /// @param moves how many moves the Solver made in total
+    /// @param seconds how long playing all the games took
+    /// @param move how long a move took the Solver
+    /// @param game how long a whole game took, including the moves being made
+    record Result(String solver, String type, BoardSize size, long seed, int games, int won, int lost, int resigned,
+                  long moves, double seconds, Latency move, Latency game) {
+        
+        double winRate() {
+            return (double) won / games;
+        }
+        
+        double gamesPerSecond() {
+            return games / seconds;
+        }
+    }
+    
+    /// Percentiles of how long something took, in nanoseconds
+    ///
+    /// @param p50 the median
+    /// @param p99 the 99th percentile
+    /// @param max the longest
+    record Latency(long p50, long p99, long max) {
+        
+        static Latency of(long[] nanos, int count) {
+            if (count == 0)
+                return new Latency(0, 0, 0);
+            Arrays.sort(nanos, 0, count);
+            return new Latency(nanos[percentile(count, 0.5)], nanos[percentile(count, 0.99)], nanos[count - 1]);
+        }
+        
+        private static int percentile(int count, double percentile) {
+            return Math.min(count - 1, (int) Math.ceil(count * percentile) - 1);
+        }
+    }
+    
+    /// Lets every Solver play all the games
+    ///
+    /// @param solvers the Solvers, [ServiceLoader.Provider#get()] is called once for every worker
+    /// @param executor what to run the workers on, it needs to be able to run all of them at once
+    /// @return how each Solver did, in the same order
+    /// @throws InterruptedException if the thread is interrupted while the games are being played
+    List<Result> run(List<ServiceLoader.Provider<Solver>> solvers, ExecutorService executor) throws InterruptedException {
+        var results = new ArrayList<Result>();
+        for (var solver : solvers)
+            results.add(run(solver, executor));
+        return results;
+    }
+    
+    private Result run(ServiceLoader.Provider<Solver> provider, ExecutorService executor) throws InterruptedException {
+        var start = System.nanoTime();
+        var futures = new ArrayList<Future<Worker>>();
+        for (int i = 0; i < workers; i++) {
+            var worker = new Worker(provider.get(), i);
+            futures.add(executor.submit(worker::play));
+        }
+        
+        var done = new ArrayList<Worker>();
+        try {
+            for (var future : futures)
+                done.add(future.get());
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Solver " + provider.type().getName() + " failed", e.getCause());
+        } finally {
+            for (var future : futures)
+                future.cancel(true);
+        }
+        var seconds = (System.nanoTime() - start) / 1e9;
+        
+        int won = 0, lost = 0, resigned = 0;
+        var moves = new long[done.stream().mapToInt((worker) -> worker.moves).sum()];
+        var game_times = new long[games];
+        int move_count = 0, game_count = 0;
+        for (var worker : done) {
+            won += worker.won;
+            lost += worker.lost;
+            resigned += worker.resigned;
+            System.arraycopy(worker.move_times, 0, moves, move_count, worker.moves);
+            move_count += worker.moves;
+            System.arraycopy(worker.game_times, 0, game_times, game_count, worker.played);
+            game_count += worker.played;
+        }
+        
+        var name = done.getFirst().solver.getName();
+        return new Result(name, provider.type().getName(), size, seed, games, won, lost, resigned, move_count, seconds,
+                Latency.of(moves, move_count), Latency.of(game_times, game_count));
+    }
+    
+    /// Plays every [#workers]th game, starting from [#first]
+    private final class Worker {
+        
+        private final Solver solver;
+        private final int first;
+        
+        private int won, lost, resigned;
+        private long[] move_times = new long[1024];
+        private int moves;
+        private final long[] game_times = new long[(seeds.length + workers - 1) / workers];
+        private int played;
+        
+        Worker(Solver solver, int first) {
+            this.solver = solver;
+            this.first = first;
+        }
+        
+        Worker play() throws InterruptedException {
+            var x = size.width() / 2;
+            var y = size.height() / 2;
+            // a solver that keeps making moves that don't do anything would never finish
+            var limit = 4L * size.width() * size.height();
+            for (int i = first; i < seeds.length; i += workers) {
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                var board = Board.random(size, seeds[i], x, y, 1);
+                var game = new SetMinsweeperGame(new GameState(GameStatus.PLAYING, board, size.mines()));
+                
+                var start = System.nanoTime();
+                var state = game.reveal(x, y);
+                for (long made = 0; state.status() == GameStatus.PLAYING && made < limit; made++) {
+                    var before = System.nanoTime();
+                    var move = solver.solve(state);
+                    if (moves == move_times.length)
+                        move_times = Arrays.copyOf(move_times, moves * 2);
+                    move_times[moves++] = System.nanoTime() - before;
+                    if (!(move instanceof Move(var clicks, var ignored)))
+                        break;
+                    for (var click : clicks)
+                        state = switch (click.action()) {
+                            case LEFT -> game.leftClick(click.point().x(), click.point().y());
+                            case RIGHT -> game.rightClick(click.point().x(), click.point().y());
+                        };
+                }
+                game_times[played++] = System.nanoTime() - start;
+                
+                switch (state.status()) {
+                    case WON -> won++;
+                    case LOST -> lost++;
+                    default -> resigned++;
+                }
+            }
+            return this;
+        }
+    }
+    
+    /// Writes results as a JSON array, one object per Solver
+    ///
+    /// @param results the results
+    /// @param out where to write them
+    /// @throws IOException if `out` throws one
+    static void writeJson(List<Result> results, Appendable out) throws IOException {
+        out.append("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            var result = results.get(i);
+            out.append("  {\n");
+            out.append("    \"solver\": ").append(quote(result.solver())).append(",\n");
+            out.append("    \"class\": ").append(quote(result.type())).append(",\n");
+            out.append("    \"size\": { \"width\": ").append(String.valueOf(result.size().width()))
+                    .append(", \"height\": ").append(String.valueOf(result.size().height()))
+                    .append(", \"mines\": ").append(String.valueOf(result.size().mines())).append(" },\n");
+            out.append("    \"seed\": ").append(String.valueOf(result.seed())).append(",\n");
+            out.append("    \"games\": ").append(String.valueOf(result.games())).append(",\n");
+            out.append("    \"won\": ").append(String.valueOf(result.won())).append(",\n");
+            out.append("    \"lost\": ").append(String.valueOf(result.lost())).append(",\n");
+            out.append("    \"resigned\": ").append(String.valueOf(result.resigned())).append(",\n");
+            out.append("    \"winRate\": ").append(String.valueOf(result.winRate())).append(",\n");
+            out.append("    \"moves\": ").append(String.valueOf(result.moves())).append(",\n");
+            out.append("    \"seconds\": ").append(String.valueOf(result.seconds())).append(",\n");
+            out.append("    \"gamesPerSecond\": ").append(String.valueOf(result.gamesPerSecond())).append(",\n");
+            out.append("    \"moveNanos\": ").append(json(result.move())).append(",\n");
+            out.append("    \"gameNanos\": ").append(json(result.game())).append("\n");
+            out.append((i < results.size() - 1) ? "  },\n" : "  }\n");
+        }
+        out.append("]\n");
+    }
+    
+    private static String json(Latency latency) {
+        return "{ \"p50\": " + latency.p50() + ", \"p99\": " + latency.p99() + ", \"max\": " + latency.max() + " }";
+    }
+    
+    private static String quote(String string) {
+        var quoted = new StringBuilder("\"");
+        for (var c : string.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                default -> {
+                    if (c < 0x20)
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    else
+                        quoted.append(c);
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+    
+    /// Writes results as CSV with a header, one row per Solver
+    ///
+    /// @param results the results
+    /// @param out where to write them
+    /// @throws IOException if `out` throws one
+    static void writeCsv(List<Result> results, Appendable out) throws IOException {
+        out.append(CSV_HEADER).append('\n');
+        for (var result : results) {
+            out.append(String.join(",",
+                    csv(result.solver()),
+                    csv(result.type()),
+                    String.valueOf(result.size().width()),
+                    String.valueOf(result.size().height()),
+                    String.valueOf(result.size().mines()),
+                    String.valueOf(result.seed()),
+                    String.valueOf(result.games()),
+                    String.valueOf(result.won()),
+                    String.valueOf(result.lost()),
+                    String.valueOf(result.resigned()),
+                    String.valueOf(result.moves()),
+                    String.valueOf(result.seconds()),
+                    String.valueOf(result.move().p50()),
+                    String.valueOf(result.move().p99()),
+                    String.valueOf(result.move().max()),
+                    String.valueOf(result.game().p50()),
+                    String.valueOf(result.game().p99()),
+                    String.valueOf(result.game().max())
+            )).append('\n');
+        }
+    }
+    
+    private static String csv(String string) {
+        if (string.indexOf(',') < 0 && string.indexOf('"') < 0 && string.indexOf('\n') < 0)
+            return string;
+        return '"' + string.replace("\"", "\"\"") + '"';
+    }
+    
+    /// Reads results back from a file written by [#writeCsv(List, Appendable)]
+    ///
+    /// @param file the file
+    /// @return the results in it
+    /// @throws IOException if the file couldn't be read or isn't results
+    static List<Result> readCsv(Path file) throws IOException {
+        var lines = Files.readAllLines(file);
+        if (lines.isEmpty() || !lines.getFirst().equals(CSV_HEADER))
+            throw new IOException("Not a tournament results file");
+        var results = new ArrayList<Result>();
+        for (var line : lines.subList(1, lines.size())) {
+            if (line.isBlank())
+                continue;
+            var fields = parseCsv(line);
+            if (fields.size() != 18)
+                throw new IOException("Malformed results line: " + line);
+            try {
+                results.add(new Result(fields.get(0), fields.get(1),
+                        new BoardSize(Integer.parseInt(fields.get(2)), Integer.parseInt(fields.get(3)),
+                                Integer.parseInt(fields.get(4))),
+                        Long.parseLong(fields.get(5)),
+                        Integer.parseInt(fields.get(6)), Integer.parseInt(fields.get(7)),
+                        Integer.parseInt(fields.get(8)), Integer.parseInt(fields.get(9)),
+                        Long.parseLong(fields.get(10)), Double.parseDouble(fields.get(11)),
+                        new Latency(Long.parseLong(fields.get(12)), Long.parseLong(fields.get(13)),
+                                Long.parseLong(fields.get(14))),
+                        new Latency(Long.parseLong(fields.get(15)), Long.parseLong(fields.get(16)),
+                                Long.parseLong(fields.get(17)))));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed results line: " + line, e);
+            }
+        }
+        return results;
+    }
+    
+    private static List<String> parseCsv(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
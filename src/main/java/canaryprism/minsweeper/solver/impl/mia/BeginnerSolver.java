@@ -16,6 +16,7 @@
 
 package canaryprism.minsweeper.solver.impl.mia;
 
+import canaryprism.minsweeper.BitBoard;
 import canaryprism.minsweeper.Cell;
 import canaryprism.minsweeper.CellState;
 import canaryprism.minsweeper.CellType;
@@ -37,9 +38,16 @@ public class BeginnerSolver implements Solver {
     @Override
     public Move solve(GameState state) {
         var size = state.board().getSize();
+        var bits = BitBoard.of(state.board());
+        var candidates = candidates(bits);
+        var words_per_row = bits.wordsPerRow();
         
-        for (int y2 = 0; y2 < size.height(); y2++) {
-            for (int x2 = 0; x2 < size.width(); x2++) {
+        // candidates are exactly the cells the checks below make a move for,
+        // going through them in order finds the same move as checking every cell would
+        for (int i = 0; i < candidates.length; i++) {
+            for (var word = candidates[i]; word != 0; word &= word - 1) {
+                var x2 = (i % words_per_row << 6) + Long.numberOfTrailingZeros(word);
+                var y2 = i / words_per_row;
                 
                 if (!(state.board().get(x2, y2) instanceof Cell(var t, var ignored)
                         && t instanceof CellType.Safe(var number)))
@@ -93,6 +101,53 @@ public class BeginnerSolver implements Solver {
         return null;
     }
     
+    /// Finds every [CellType.Safe] cell that either has exactly its number of flags around it and unknown cells left to chord,
+    /// exactly its number of flagged and unknown cells around it with some unknown ones left to flag,
+    /// or more flags around it than its number
+    ///
+    /// "around" includes the cell itself, like the checks in [#solve(GameState)] do.
+    /// all of it is worked out on bit-sliced counts so every cell in a word is checked at once
+    private static long[] candidates(BitBoard bits) {
+        var numbers = bits.numbers();
+        var safe = bits.safe();
+        var flags = bits.countAround(bits.flagged(), true);
+        var unknowns = bits.countAround(bits.unknown(), true);
+        
+        var candidates = new long[safe.length];
+        for (int i = 0; i < safe.length; i++) {
+            long n0 = numbers[0][i], n1 = numbers[1][i], n2 = numbers[2][i], n3 = numbers[3][i];
+            long f0 = flags[0][i], f1 = flags[1][i], f2 = flags[2][i], f3 = flags[3][i];
+            long u0 = unknowns[0][i], u1 = unknowns[1][i], u2 = unknowns[2][i], u3 = unknowns[3][i];
+            
+            // flags + unknowns, can't go past 9 since no cell is both
+            var e0 = f0 ^ u0;
+            var c0 = f0 & u0;
+            var e1 = f1 ^ u1 ^ c0;
+            var c1 = (f1 & u1) | (c0 & (f1 ^ u1));
+            var e2 = f2 ^ u2 ^ c1;
+            var c2 = (f2 & u2) | (c1 & (f2 ^ u2));
+            var e3 = f3 ^ u3 ^ c2;
+            
+            var any_unknown = u0 | u1 | u2 | u3;
+            var number_is_flags = ~((n0 ^ f0) | (n1 ^ f1) | (n2 ^ f2) | (n3 ^ f3));
+            var number_is_empties = ~((n0 ^ e0) | (n1 ^ e1) | (n2 ^ e2) | (n3 ^ e3));
+            
+            // number < flags, comparing from the top bit down
+            var less = 0L;
+            var equal = -1L;
+            less |= equal & ~n3 & f3;
+            equal &= ~(n3 ^ f3);
+            less |= equal & ~n2 & f2;
+            equal &= ~(n2 ^ f2);
+            less |= equal & ~n1 & f1;
+            equal &= ~(n1 ^ f1);
+            less |= equal & ~n0 & f0;
+            
+            candidates[i] = safe[i] & (((number_is_flags | number_is_empties) & any_unknown) | less);
+        }
+        return candidates;
+    }
+    
     @Override
     public String getName() {
         return "Beginner Solver";
@@ -20,6 +20,7 @@ import canaryprism.minsweeper.Cell;
 import canaryprism.minsweeper.CellState;
 import canaryprism.minsweeper.CellType;
 import canaryprism.minsweeper.GameState;
+import canaryprism.minsweeper.event.BruteForceEvent;
 import canaryprism.minsweeper.solver.Move;
 import canaryprism.minsweeper.solver.Reason;
 import canaryprism.minsweeper.solver.Solver;
@@ -68,8 +69,18 @@ public class ExpertSolver extends IntermediateSolver implements Solver {
 //            var start = System.nanoTime();
 //            try {
             
+            var event = new BruteForceEvent();
+            event.begin();
             var states = bruteForce(adjacents.stream().toList(), 0, state)
                     .collect(Collectors.toSet());
+            event.end();
+            if (event.shouldCommit()) {
+                event.solver = getName();
+                event.frontierSize = empties.size();
+                event.numbers = adjacents.size();
+                event.states = states.size();
+                event.commit();
+            }
 //        System.out.println("possible states");
 //        for (var e : states) {
 //            e.board().forEach(System.out::println);
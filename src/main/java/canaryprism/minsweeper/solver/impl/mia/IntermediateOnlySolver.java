@@ -18,6 +18,7 @@ package canaryprism.minsweeper.solver.impl.mia;
 
 import canaryprism.minsweeper.GameStatus;
 import canaryprism.minsweeper.Minsweeper;
+import canaryprism.minsweeper.event.SolveEvent;
 import canaryprism.minsweeper.solver.Logic;
 import canaryprism.minsweeper.solver.Move;
 import canaryprism.minsweeper.solver.Reason;
@@ -35,7 +36,7 @@ public class IntermediateOnlySolver extends IntermediateSolver implements Solver
         var state = minsweeper.getGameState();
         var intermediate_logic_used = false;
         while (state.status() == GameStatus.PLAYING) {
-            var move = solve(state);
+            var move = SolveEvent.solve(this, state);
             if (move instanceof Move(var clicks, var optional_reason)) {
                 if (optional_reason.orElse(null) instanceof Reason reason && INTERMEDIATE_LOGIC.contains(reason.logic()))
                     intermediate_logic_used = true;
@@ -156,7 +156,7 @@ public class IntermediateSolver extends BeginnerSolver implements Solver {
             changed = flags.addAll(to_add);
         }
         
-        if (state.remainingMines() == 0) {
+        if (state.remainingMines() == 0 && state.board().count(CellState.UNKNOWN) > 0) {
             var clicks = new HashSet<Move.Click>();
             for (int y2 = 0; y2 < size.height(); y2++) {
                 for (int x2 = 0; x2 < size.width(); x2++) {
@@ -17,6 +17,7 @@
 package canaryprism.minsweeper.solver.impl.mia;
 
 import canaryprism.minsweeper.*;
+import canaryprism.minsweeper.event.BruteForceEvent;
 import canaryprism.minsweeper.solver.Move;
 import canaryprism.minsweeper.solver.Reason;
 import canaryprism.minsweeper.solver.Solver;
@@ -211,7 +212,7 @@ public class MiaSolver implements Solver {
         }
         
         
-        if (state.remainingMines() == 0) {
+        if (state.remainingMines() == 0 && state.board().count(CellState.UNKNOWN) > 0) {
             var clicks = new HashSet<Move.Click>();
             for (int y2 = 0; y2 < size.height(); y2++) {
                 for (int x2 = 0; x2 < size.width(); x2++) {
@@ -250,8 +251,18 @@ public class MiaSolver implements Solver {
 //            var start = System.nanoTime();
 //            try {
                 
+                var event = new BruteForceEvent();
+                event.begin();
                 var states = bruteForce(adjacents.stream().toList(), 0, state)
                         .collect(Collectors.toSet());
+                event.end();
+                if (event.shouldCommit()) {
+                    event.solver = getName();
+                    event.frontierSize = empties.size();
+                    event.numbers = adjacents.size();
+                    event.states = states.size();
+                    event.commit();
+                }
 //        System.out.println("possible states");
 //        for (var e : states) {
 //            e.board().forEach(System.out::println);
@@ -16,6 +16,9 @@
 
 package canaryprism.minsweeper.solver.impl.start;
 
+import canaryprism.minsweeper.Board;
+import canaryprism.minsweeper.Cell;
+import canaryprism.minsweeper.CellState;
 import canaryprism.minsweeper.CellType;
 import canaryprism.minsweeper.GameState;
 import canaryprism.minsweeper.Minsweeper;
@@ -23,8 +26,6 @@ import canaryprism.minsweeper.solver.Move;
 import canaryprism.minsweeper.solver.Solver;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-
 /// ZeroStart ensures the first move in [canaryprism.minsweeper.MinsweeperGame] is [empty][canaryprism.minsweeper.CellType.Safe#EMPTY]
 ///
 /// It does not do anything else and isn't a real [Solver]
@@ -41,16 +42,25 @@ public final class ZeroStart implements Solver {
         return switch (minsweeper.getGameState().status()) {
             case LOST -> Result.LOST;
             case WON -> Result.WON;
-            case PLAYING -> (minsweeper.getGameState()
-                    .board()
-                    .stream()
-                    .flatMap(Collection::stream)
-                    .anyMatch((e) -> e.type() instanceof CellType.Safe(var n) && n == 0)) ?
+            case PLAYING -> (hasEmpty(minsweeper.getGameState().board())) ?
                     Result.WON : Result.RESIGNED;
             case NEVER -> Result.RESIGNED;
         };
     }
     
+    /// @return 1, since the first reveal is only a 0 if there are no mines around it
+    @Override
+    public int getSafeRadius() {
+        return 1;
+    }
+    
+    private static boolean hasEmpty(Board board) {
+        for (var state : CellState.values())
+            if (board.count(new Cell(CellType.Safe.EMPTY, state)) > 0)
+                return true;
+        return false;
+    }
+    
     @Override
     public String getName() {
         return "Zero Start";
@@ -20,9 +20,12 @@ import canaryprism.minsweeper.solver.impl.start.*;
 /// Module of Minsweeper
 module canaryprism.minsweeper {
     requires static org.jetbrains.annotations;
+    requires jdk.jfr;
     exports canaryprism.minsweeper;
     exports canaryprism.minsweeper.solver;
     
+    uses canaryprism.minsweeper.solver.Solver;
+    
     provides canaryprism.minsweeper.solver.Solver with
             SafeStart,
             ZeroStart,
@@ -0,0 +1,275 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentMinsweeperTest {
+    
+    private static final int THREADS = 8;
+    
+    private static final BoardSize SIZE = ConventionalSize.EXPERT.size;
+    
+    /// a seeded game with a clear first reveal in the middle, already revealed, with nothing hidden
+    private static GameState game(long seed) {
+        var x = SIZE.width() / 2;
+        var y = SIZE.height() / 2;
+        var random = new Random(seed);
+        var board = new Board(SIZE);
+        for (int placed = 0; placed < SIZE.mines(); ) {
+            var mine_x = random.nextInt(SIZE.width());
+            var mine_y = random.nextInt(SIZE.height());
+            // nothing around the first reveal so it opens up an area
+            if ((Math.abs(mine_x - x) > 1 || Math.abs(mine_y - y) > 1) && !board.isMine(mine_x, mine_y)) {
+                board.set(mine_x, mine_y, new Cell(CellType.MINE, CellState.UNKNOWN));
+                placed++;
+            }
+        }
+        for (int cell_y = 0; cell_y < SIZE.height(); cell_y++)
+            for (int cell_x = 0; cell_x < SIZE.width(); cell_x++)
+                if (!board.isMine(cell_x, cell_y))
+                    board.set(cell_x, cell_y, new Cell(new CellType.Safe(minesAround(board, cell_x, cell_y)), CellState.UNKNOWN));
+        
+        var sequential = new Sequential(new GameState(GameStatus.PLAYING, board, SIZE.mines()));
+        sequential.reveal(x, y);
+        return sequential.getGameState();
+    }
+    
+    private static int minesAround(Board board, int x, int y) {
+        var mines = 0;
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(SIZE.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(SIZE.width() - 1, x + 1); x2++)
+                if (board.isMine(x2, y2))
+                    mines++;
+        return mines;
+    }
+    
+    /// makes moves on the state it's given one at a time without hiding anything
+    private static final class Sequential extends AbstractMinsweeper {
+        
+        private Sequential(GameState state) {
+            super(state.board().getSize(), () -> {}, () -> {});
+            this.gamestate = state;
+        }
+        
+        @Override
+        public GameState start() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /// runs `task` on [#THREADS] threads that all start at once, rethrowing anything they throw
+    private static void race(ThreadTask task) throws Exception {
+        var barrier = new CyclicBarrier(THREADS);
+        var failures = new ConcurrentLinkedQueue<Throwable>();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            var thread = i;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    barrier.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (var thread : threads)
+            thread.join();
+        if (!failures.isEmpty())
+            throw new AssertionError(failures.peek());
+    }
+    
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+    
+    /// every state anyone can see has to be one some sequence of whole moves could have made
+    private static void assertConsistent(GameState state) {
+        assertEquals(SIZE.mines() - state.board().count(CellState.FLAGGED), state.remainingMines(),
+                "remaining mines doesn't match the flags on the board");
+    }
+    
+    private static List<int[]> cells(GameState state, CellState cell_state, boolean mines) {
+        var cells = new ArrayList<int[]>();
+        var board = state.board();
+        for (int y = 0; y < SIZE.height(); y++)
+            for (int x = 0; x < SIZE.width(); x++)
+                if (board.getState(x, y) == cell_state && board.isMine(x, y) == mines)
+                    cells.add(new int[] { x, y });
+        return cells;
+    }
+    
+    @RepeatedTest(5)
+    void togglingOneFlagEndsUpWithTheParityOfTheToggles() throws Exception {
+        var state = game(1);
+        var cell = cells(state, CellState.UNKNOWN, true).getFirst();
+        var game = new ConcurrentMinsweeper(state);
+        // an odd total so a lost toggle can't cancel out another one
+        var toggles = 1001;
+        
+        race((thread) -> {
+            for (int i = thread; i < toggles; i += THREADS)
+                assertConsistent(game.toggleFlag(cell[0], cell[1]));
+        });
+        
+        var after = game.getGameState();
+        assertEquals(CellState.FLAGGED, after.board().getState(cell[0], cell[1]));
+        assertEquals(SIZE.mines() - 1, after.remainingMines());
+        assertConsistent(after);
+    }
+    
+    @RepeatedTest(5)
+    void flaggingEveryUnknownCellCountsEachFlagOnce() throws Exception {
+        var state = game(2);
+        var unknown = cells(state, CellState.UNKNOWN, true);
+        unknown.addAll(cells(state, CellState.UNKNOWN, false));
+        var game = new ConcurrentMinsweeper(state);
+        
+        // every thread flags every cell, so they all fight over each one
+        race((thread) -> {
+            for (var cell : unknown)
+                assertConsistent(game.setFlagged(cell[0], cell[1], true));
+        });
+        
+        var after = game.getGameState();
+        assertEquals(SIZE.mines() - unknown.size(), after.remainingMines());
+        assertEquals(unknown.size(), after.board().count(CellState.FLAGGED));
+    }
+    
+    /// Revealing safe cells and flagging mines end up the same in any order as long as the game isn't won partway,
+    /// so whatever order the moves were linearised in the result has to be what making them one at a time gives.
+    /// One safe cell that no other reveal floods into is held back until the end so the game is won exactly then
+    @RepeatedTest(5)
+    void concurrentMovesMatchMakingThemOneAtATime() throws Exception {
+        var state = game(3);
+        var safe = cells(state, CellState.UNKNOWN, false);
+        var mines = cells(state, CellState.UNKNOWN, true);
+        var last = safe.stream()
+                .filter((cell) -> !bordersEmpty(state, cell[0], cell[1]) && state.board().getNumber(cell[0], cell[1]) > 0)
+                .findFirst()
+                .orElseThrow();
+        safe.remove(last);
+        
+        var sequential = new Sequential(state);
+        for (var cell : mines)
+            sequential.setFlagged(cell[0], cell[1], true);
+        for (var cell : safe)
+            sequential.reveal(cell[0], cell[1]);
+        var expected = sequential.getGameState();
+        assertEquals(GameStatus.PLAYING, expected.status());
+        
+        var wins = new AtomicInteger();
+        var losses = new AtomicInteger();
+        var game = new ConcurrentMinsweeper(state, wins::incrementAndGet, losses::incrementAndGet);
+        var moves = new ArrayList<Runnable>();
+        for (var cell : mines)
+            moves.add(() -> assertConsistent(game.setFlagged(cell[0], cell[1], true)));
+        for (var cell : safe)
+            moves.add(() -> assertConsistent(game.reveal(cell[0], cell[1])));
+        
+        race((thread) -> {
+            var mine = new ArrayList<>(moves);
+            Collections.shuffle(mine);
+            for (var move : mine)
+                move.run();
+        });
+        
+        var after = game.getGameState();
+        assertEquals(GameStatus.PLAYING, after.status());
+        assertEquals(expected.remainingMines(), after.remainingMines());
+        assertEquals(expected.hideMines().board(), after.board());
+        
+        // everyone goes for the last cell at once, only one of them wins
+        race((thread) -> game.reveal(last[0], last[1]));
+        sequential.reveal(last[0], last[1]);
+        
+        after = game.getGameState();
+        assertEquals(GameStatus.WON, after.status());
+        assertEquals(sequential.getGameState().board(), after.board());
+        assertEquals(1, wins.get(), "the game has to be won exactly once");
+        assertEquals(0, losses.get());
+    }
+    
+    private static boolean bordersEmpty(GameState state, int x, int y) {
+        var board = state.board();
+        for (int y2 = Math.max(0, y - 1); y2 <= Math.min(SIZE.height() - 1, y + 1); y2++)
+            for (int x2 = Math.max(0, x - 1); x2 <= Math.min(SIZE.width() - 1, x + 1); x2++)
+                if (!board.isMine(x2, y2) && board.getNumber(x2, y2) == 0)
+                    return true;
+        return false;
+    }
+    
+    @Test
+    void revealingAMineLosesOnceAndStopsTheGame() throws Exception {
+        var state = game(4);
+        var mine = cells(state, CellState.UNKNOWN, true).getFirst();
+        var safe = cells(state, CellState.UNKNOWN, false);
+        
+        var losses = new AtomicInteger();
+        var game = new ConcurrentMinsweeper(state, () -> {}, losses::incrementAndGet);
+        
+        race((thread) -> {
+            for (int i = thread; i < safe.size(); i += THREADS) {
+                if (i == safe.size() / 2)
+                    game.reveal(mine[0], mine[1]);
+                var cell = safe.get(i);
+                var after = game.reveal(cell[0], cell[1]);
+                if (after.status() == GameStatus.PLAYING)
+                    assertConsistent(after);
+            }
+        });
+        
+        var after = game.getGameState();
+        assertEquals(GameStatus.LOST, after.status());
+        assertEquals(1, losses.get(), "the game has to be lost exactly once");
+        // nothing changes once the game is over
+        assertSame(after.status(), game.toggleFlag(0, 0).status());
+        assertEquals(after.board(), game.getGameState().board());
+    }
+    
+    @Test
+    void deltasOnlyHaveTheirOwnMove() throws Exception {
+        var state = game(5);
+        var unknown = cells(state, CellState.UNKNOWN, true);
+        unknown.addAll(cells(state, CellState.UNKNOWN, false));
+        var game = new ConcurrentMinsweeper(state);
+        
+        race((thread) -> {
+            for (int i = thread; i < unknown.size(); i += THREADS) {
+                var cell = unknown.get(i);
+                var delta = game.rightClickDelta(cell[0], cell[1]);
+                assertEquals(1, delta.size(), "a flag only changes one cell");
+            }
+        });
+        
+        assertEquals(unknown.size(), game.getGameState().board().count(CellState.FLAGGED));
+    }
+}
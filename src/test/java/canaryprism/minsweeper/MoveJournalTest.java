@@ -0,0 +1,62 @@
+/*
+ *    Copyright 2025 Canary Prism <canaryprsn@gmail.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package canaryprism.minsweeper;
+
+import canaryprism.minsweeper.solver.Solver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveJournalTest {
+    
+    @Test
+    void replaysEveryGameAndOnlyThoseGames(@TempDir Path directory) throws Exception {
+        var file = directory.resolve("games.mswj");
+        var size = ConventionalSize.BEGINNER.size;
+        var game = new MinsweeperGame(size);
+        var played = new ArrayList<GameState>();
+        
+        try (var journal = MoveJournal.create(file, size)) {
+            game.setJournal(journal);
+            for (int i = 0; i < 30; i++) {
+                game.start(Solver.getDefault(), i);
+                // none of these do anything before the board exists
+                game.clearAround(4, 4);
+                game.setFlagged(0, 0, true);
+                game.reveal(4, 4);
+                // or after, since they don't change anything
+                game.reveal(4, 4);
+                game.clearAround(4, 4);
+                Solver.getDefault().solve(game);
+                played.add(game.getGameState());
+            }
+        }
+        
+        var reader = MoveJournal.open(file);
+        assertEquals(played.size(), reader.games());
+        for (int i = 0; i < reader.games(); i++) {
+            var replayed = reader.replay(i);
+            assertEquals(played.get(i).status(), replayed.status());
+            assertEquals(played.get(i).board(), replayed.board());
+        }
+    }
+}